@@ -0,0 +1,82 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Display-text extraction and the blank check of every cell of a DOM sheet, i.e. the per-cell cost of the DOM
+ * reader and of building the sheet model. Scores are per sheet; divide by the cell count printed at setup, and
+ * run with {@code -prof gc} for the allocation per sheet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CellValueBenchmark {
+
+	@Param({"NARROW_TALL", "STYLE_HEAVY", "MIXED_TYPES"})
+	public SyntheticWorkbooks.Shape shape;
+
+	private Workbook workbook;
+	private Cell[] cells;
+	private String[] values;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		workbook = new XSSFWorkbook(new ByteArrayInputStream(SyntheticWorkbooks.create(shape)));
+		List<Cell> all = new ArrayList<>();
+		for (Row row : workbook.getSheetAt(0)) {
+			row.forEach(all::add);
+		}
+		cells = all.toArray(new Cell[0]);
+		values = new String[cells.length];
+		for (int i = 0; i < cells.length; i++) {
+			values[i] = CellValues.getCellValue(cells[i]);
+		}
+		System.out.println();
+		System.out.println(shape + ": " + cells.length + " cells");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		workbook.close();
+	}
+
+	@Benchmark
+	public void getCellValue(Blackhole blackhole) {
+		for (Cell cell : cells) {
+			blackhole.consume(CellValues.getCellValue(cell));
+		}
+	}
+
+	@Benchmark
+	public void isBlank(Blackhole blackhole) {
+		for (String value : values) {
+			blackhole.consume(CellValues.isBlank(value));
+		}
+	}
+}
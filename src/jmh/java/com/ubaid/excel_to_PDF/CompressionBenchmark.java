@@ -0,0 +1,67 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion time per output compression profile. The PDF size of each shape and profile is printed once per
+ * trial, since JMH only reports times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+	@Param({"NARROW_TALL", "WIDE", "STYLE_HEAVY", "CALENDAR"})
+	public SyntheticWorkbooks.Shape shape;
+
+	@Param({"FAST", "BALANCED", "COMPACT"})
+	public CompressionProfile compression;
+
+	private ExcelToPdfConverter converter;
+	private byte[] xlsx;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		// Pool size 0: the compact profile compresses on one thread per processor.
+		converter = new ExcelToPdfConverter(false, 0);
+		xlsx = SyntheticWorkbooks.create(shape);
+		System.out.println();
+		System.out.println(shape + " " + compression + ": " + convert() + " bytes");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		converter.shutdown();
+	}
+
+	@Benchmark
+	public long convert() throws IOException {
+		CountingOutputStream out = new CountingOutputStream(NullOutputStream.INSTANCE);
+		ConversionOptions options = converter.defaultOptions().withCompressionProfile(compression);
+		try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), shape + ".xlsx", options)) {
+			converter.convert(workbook, out, new ConversionStats(), options);
+		}
+		return out.getByteCount();
+	}
+}
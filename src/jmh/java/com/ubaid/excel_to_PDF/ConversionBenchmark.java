@@ -0,0 +1,70 @@
+package com.ubaid.excel_to_PDF;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code convertExcelToPdf}: open, read, lay out and write, with the PDF streamed to a null
+ * output. The conversion cache is disabled so every invocation does the full work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+	@Param({"NARROW_TALL", "WIDE", "STYLE_HEAVY", "IMAGE_HEAVY", "CALENDAR"})
+	public SyntheticWorkbooks.Shape shape;
+
+	private ExcelToPdfConverter converter;
+	private BatchConversionService batchService;
+	private ExcelToPdfController controller;
+	private MockMultipartFile upload;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		converter = new ExcelToPdfConverter(false, 1);
+		ConversionMetrics metrics = new ConversionMetrics(new SimpleMeterRegistry(), Duration.ofMinutes(10));
+		ConversionLimiter limiter = new ConversionLimiter(false, 0, DataSize.ofBytes(0), DataSize.ofGigabytes(1), Duration.ZERO);
+		batchService = new BatchConversionService(converter, new ObjectMapper(), metrics, limiter, 1, DataSize.ofMegabytes(100));
+		ConversionCache cache = new ConversionCache(false, DataSize.ofBytes(0), DataSize.ofBytes(0));
+		controller = new ExcelToPdfController(converter, cache, batchService, metrics, limiter);
+		upload = new MockMultipartFile("file", shape + ".xlsx", "application/octet-stream", SyntheticWorkbooks.create(shape));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		batchService.shutdown();
+		converter.shutdown();
+	}
+
+	@Benchmark
+	public void convertExcelToPdf() throws IOException {
+		ResponseEntity<StreamingResponseBody> response = controller.convertExcelToPdf(upload, null, null, null, false, null, null, null);
+		response.getBody().writeTo(OutputStream.nullOutputStream());
+	}
+}
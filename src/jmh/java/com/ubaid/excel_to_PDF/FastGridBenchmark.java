@@ -0,0 +1,69 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layout phase of a 100k-row sheet with the iText table layout against the fast-grid canvas renderer.
+ * A single layout of the LAYOUT mode takes tens of seconds, so each iteration is one timed render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FastGridBenchmark {
+
+	@Param({"LAYOUT", "FAST_GRID"})
+	public RenderMode renderMode;
+
+	private ExcelToPdfConverter converter;
+	private FontRegistry fontRegistry;
+	private WorkbookSource workbook;
+	private SheetModel model;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		fontRegistry = new FontRegistry(null);
+		converter = new ExcelToPdfConverter(fontRegistry, false, 1);
+		byte[] xlsx = SyntheticWorkbooks.create(SyntheticWorkbooks.Shape.LARGE_GRID);
+		workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), "large-grid.xlsx",
+				converter.defaultOptions().withReaderMode(ReaderMode.STREAMING));
+		model = SheetModel.read(workbook.getSheets().get(0));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		workbook.close();
+		converter.shutdown();
+	}
+
+	@Benchmark
+	public void createSheetTable() {
+		PdfDocument pdf = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+		Document document = new Document(pdf, PageSize.A4);
+		converter.createSheetTable(document, model, new CellStyleCache(), fontRegistry.forDocument(), renderMode);
+		document.close();
+	}
+}
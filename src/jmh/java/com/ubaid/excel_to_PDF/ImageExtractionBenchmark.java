@@ -0,0 +1,50 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.io.image.ImageData;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageExtractionBenchmark {
+
+	private ExcelToPdfConverter converter;
+	private XSSFWorkbook workbook;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		converter = new ExcelToPdfConverter(false, 1);
+		workbook = new XSSFWorkbook(new ByteArrayInputStream(SyntheticWorkbooks.create(SyntheticWorkbooks.Shape.IMAGE_HEAVY)));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		workbook.close();
+		converter.shutdown();
+	}
+
+	@Benchmark
+	public List<ImageData> extractImagesFromSheet() {
+		return converter.extractImagesFromSheet(workbook.getSheetAt(0), new ImageCache(0));
+	}
+}
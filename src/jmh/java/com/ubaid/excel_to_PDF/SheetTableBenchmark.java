@@ -0,0 +1,73 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse/scan and layout phases on their own: reading the first sheet into a {@link SheetModel}, and
+ * laying it out with {@code createSheetTable} into a PDF that is written to a null stream. The
+ * CALENDAR shape exercises the calendar path, the others the column-group table path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SheetTableBenchmark {
+
+	@Param({"NARROW_TALL", "WIDE", "STYLE_HEAVY", "CALENDAR"})
+	public SyntheticWorkbooks.Shape shape;
+
+	private ExcelToPdfConverter converter;
+	private FontRegistry fontRegistry;
+	private WorkbookSource workbook;
+	private SheetModel model;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		fontRegistry = new FontRegistry(null);
+		converter = new ExcelToPdfConverter(fontRegistry, false, 1);
+		workbook = converter.openWorkbook(new ByteArrayInputStream(SyntheticWorkbooks.create(shape)), shape + ".xlsx", converter.defaultOptions());
+		model = SheetModel.read(workbook.getSheets().get(0));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		workbook.close();
+		converter.shutdown();
+	}
+
+	@Benchmark
+	public SheetModel readSheetModel() {
+		return SheetModel.read(workbook.getSheets().get(0));
+	}
+
+	@Benchmark
+	public void createSheetTable() {
+		PdfDocument pdf = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+		Document document = new Document(pdf, PageSize.A4);
+		converter.createSheetTable(document, model, new CellStyleCache(), fontRegistry.forDocument(), converter.defaultOptions().getRenderMode());
+		document.close();
+	}
+}
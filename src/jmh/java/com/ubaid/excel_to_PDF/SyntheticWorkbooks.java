@@ -0,0 +1,198 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.ClientAnchor;
+import org.apache.poi.ss.usermodel.Drawing;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Deterministic workbooks for the benchmarks, one per sheet shape the converter treats differently.
+ */
+public final class SyntheticWorkbooks {
+
+	public enum Shape {
+		/** 5 columns, 5000 rows of text and numbers. */
+		NARROW_TALL,
+		/** 40 columns, 500 rows; split into 8 column groups. */
+		WIDE,
+		/** 10 columns, 2000 rows cycling through 48 bold/fill/alignment combinations. */
+		STYLE_HEAVY,
+		/** 12 rows of text with 24 PNG pictures anchored on the sheet. */
+		IMAGE_HEAVY,
+		/** Twelve month sheets with a Sun..Sat header row and day numbers. */
+		CALENDAR,
+		/** 8 columns, 100000 rows of text and numbers; written with SXSSF to keep the generator's heap small. */
+		LARGE_GRID,
+		/**
+		 * 8 columns, 5000 rows of unique text, repeated categories, counts, amounts, dates, booleans, formulas and
+		 * whitespace-only cells; the value types of a typical report export.
+		 */
+		MIXED_TYPES
+	}
+
+	private static final String[] DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+	private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+	private SyntheticWorkbooks() {
+	}
+
+	public static byte[] create(Shape shape) {
+		try (Workbook workbook = shape == Shape.LARGE_GRID ? new SXSSFWorkbook(1000) : new XSSFWorkbook();
+			 ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			switch (shape) {
+				case NARROW_TALL -> table(workbook, 5, 5000, false);
+				case WIDE -> table(workbook, 40, 500, false);
+				case STYLE_HEAVY -> table(workbook, 10, 2000, true);
+				case IMAGE_HEAVY -> images(workbook, 24);
+				case CALENDAR -> calendar(workbook);
+				case LARGE_GRID -> table(workbook, 8, 100_000, false);
+				case MIXED_TYPES -> mixedTypes(workbook, 5000);
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void table(Workbook workbook, int columns, int rows, boolean styled) {
+		Sheet sheet = workbook.createSheet("Data");
+		CellStyle[] styles = styled ? styles(workbook) : null;
+		Row header = sheet.createRow(0);
+		for (int col = 0; col < columns; col++) {
+			header.createCell(col).setCellValue("Column " + (col + 1));
+		}
+		for (int r = 1; r <= rows; r++) {
+			Row row = sheet.createRow(r);
+			for (int col = 0; col < columns; col++) {
+				org.apache.poi.ss.usermodel.Cell cell = row.createCell(col);
+				if (col % 2 == 0) {
+					cell.setCellValue("Item " + r + "-" + col);
+				} else {
+					cell.setCellValue(r * 10.25 + col);
+				}
+				if (styles != null) {
+					cell.setCellStyle(styles[(r + col) % styles.length]);
+				}
+			}
+		}
+	}
+
+	private static void mixedTypes(Workbook workbook, int rows) {
+		Sheet sheet = workbook.createSheet("Report");
+		CellStyle date = workbook.createCellStyle();
+		date.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+		String[] headers = {"Order", "Region", "Quantity", "Amount", "Date", "Paid", "Total", "Note"};
+		Row header = sheet.createRow(0);
+		for (int col = 0; col < headers.length; col++) {
+			header.createCell(col).setCellValue(headers[col]);
+		}
+		for (int r = 1; r <= rows; r++) {
+			Row row = sheet.createRow(r);
+			row.createCell(0).setCellValue("Order " + r);
+			row.createCell(1).setCellValue(MONTHS[r % 4] + " region");
+			row.createCell(2).setCellValue(r % 50);
+			row.createCell(3).setCellValue(r * 1.25);
+			row.createCell(4).setCellValue(45000 + r % 365);
+			row.getCell(4).setCellStyle(date);
+			row.createCell(5).setCellValue(r % 3 == 0);
+			row.createCell(6).setCellFormula("C" + (r + 1) + "*D" + (r + 1));
+			row.createCell(7).setCellValue(r % 5 == 0 ? "See note " + r : " \u00A0 ");
+		}
+		workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+	}
+
+	private static CellStyle[] styles(Workbook workbook) {
+		Font bold = workbook.createFont();
+		bold.setBold(true);
+		short[] fills = {IndexedColors.LIGHT_YELLOW.getIndex(), IndexedColors.LIGHT_GREEN.getIndex(),
+				IndexedColors.LIGHT_BLUE.getIndex(), IndexedColors.GREY_25_PERCENT.getIndex(),
+				IndexedColors.CORAL.getIndex(), IndexedColors.LAVENDER.getIndex(),
+				IndexedColors.TAN.getIndex(), IndexedColors.AQUA.getIndex()};
+		HorizontalAlignment[] alignments = {HorizontalAlignment.LEFT, HorizontalAlignment.CENTER, HorizontalAlignment.RIGHT};
+		CellStyle[] styles = new CellStyle[fills.length * alignments.length * 2];
+		int i = 0;
+		for (short fill : fills) {
+			for (HorizontalAlignment alignment : alignments) {
+				for (int b = 0; b < 2; b++) {
+					CellStyle style = workbook.createCellStyle();
+					style.setFillForegroundColor(fill);
+					style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+					style.setAlignment(alignment);
+					if (b == 1) {
+						style.setFont(bold);
+					}
+					styles[i++] = style;
+				}
+			}
+		}
+		return styles;
+	}
+
+	private static void images(Workbook workbook, int count) {
+		Sheet sheet = workbook.createSheet("Pictures");
+		for (int r = 0; r < 12; r++) {
+			Row row = sheet.createRow(r);
+			row.createCell(0).setCellValue("Caption " + r);
+			row.createCell(1).setCellValue(r);
+		}
+		Drawing<?> drawing = sheet.createDrawingPatriarch();
+		Random random = new Random(42);
+		for (int i = 0; i < count; i++) {
+			int picture = workbook.addPicture(png(random), Workbook.PICTURE_TYPE_PNG);
+			ClientAnchor anchor = workbook.getCreationHelper().createClientAnchor();
+			anchor.setCol1(3 + (i % 4) * 3);
+			anchor.setRow1((i / 4) * 10);
+			anchor.setCol2(anchor.getCol1() + 2);
+			anchor.setRow2(anchor.getRow1() + 8);
+			drawing.createPicture(anchor, picture);
+		}
+	}
+
+	private static byte[] png(Random random) {
+		BufferedImage image = new BufferedImage(160, 120, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				image.setRGB(x, y, random.nextInt(0xFFFFFF));
+			}
+		}
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			ImageIO.write(image, "png", out);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void calendar(Workbook workbook) {
+		for (int month = 0; month < MONTHS.length; month++) {
+			Sheet sheet = workbook.createSheet(MONTHS[month]);
+			Row header = sheet.createRow(0);
+			for (int col = 0; col < DAYS.length; col++) {
+				header.createCell(col).setCellValue(DAYS[col]);
+			}
+			int day = 1;
+			for (int week = 1; week <= 5; week++) {
+				Row row = sheet.createRow(week);
+				for (int col = 0; col < 7 && day <= 31; col++, day++) {
+					row.createCell(col).setCellValue(day);
+				}
+			}
+		}
+	}
+}
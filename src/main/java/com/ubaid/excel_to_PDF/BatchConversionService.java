@@ -0,0 +1,271 @@
+package com.ubaid.excel_to_PDF;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Converts every workbook of a ZIP archive and writes the PDFs to an output ZIP, in archive order.
+ * Entries are converted on a fixed pool while the calling thread keeps reading new entries and
+ * compressing finished PDFs; at most pool-size conversions are in flight at any time. Workbooks and
+ * PDFs waiting their turn are kept in temporary files, like large single uploads, so the heap only
+ * holds what the limiter has reserved for the conversions themselves.
+ */
+@Service
+public class BatchConversionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchConversionService.class);
+
+    static final String MANIFEST_NAME = "manifest.json";
+
+    private final ExcelToPdfConverter converter;
+    private final ObjectMapper objectMapper;
+    private final ConversionMetrics metrics;
+    private final ConversionLimiter limiter;
+    private final int poolSize;
+    private final long maxEntryBytes;
+    private final ExecutorService executor;
+
+    public BatchConversionService(ExcelToPdfConverter converter, ObjectMapper objectMapper, ConversionMetrics metrics,
+                                  ConversionLimiter limiter,
+                                  @Value("${excel-to-pdf.batch.pool-size:0}") int poolSize,
+                                  @Value("${excel-to-pdf.batch.max-entry-size:100MB}") DataSize maxEntrySize) {
+        this.converter = converter;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "batch-convert-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads workbooks from {@code in} and writes their PDFs plus a {@value #MANIFEST_NAME} to {@code out}.
+     * A workbook that fails to convert is listed in the manifest with its error and does not stop the batch.
+     * Output names that would clash, ignoring case, with an earlier PDF get a numeric suffix.
+     */
+    public void convert(InputStream in, OutputStream out) throws IOException {
+        List<Map<String, String>> manifest = new ArrayList<>();
+        Set<String> outputNames = new HashSet<>();
+        outputNames.add(MANIFEST_NAME);
+        Deque<PendingEntry> pending = new ArrayDeque<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            ZipInputStream entries = new ZipInputStream(in);
+            ZipEntry entry;
+            while ((entry = entries.getNextEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                String name = entry.getName();
+                Map<String, String> result = new LinkedHashMap<>();
+                result.put("entry", name);
+                manifest.add(result);
+                if (!name.toLowerCase().endsWith(".xlsx") && !name.toLowerCase().endsWith(".xls")) {
+                    setResult(result, null, "SKIPPED", "Not an .xlsx or .xls workbook");
+                    continue;
+                }
+                String path = safePath(name);
+                if (path == null) {
+                    setResult(result, null, "FAILED", "Entry path is absolute or leaves the archive");
+                    continue;
+                }
+                PendingEntry next = new PendingEntry(path, result,
+                        Files.createTempFile("excel-to-pdf-batch-", ".upload"), Files.createTempFile("excel-to-pdf-batch-", ".pdf"));
+                // Entry sizes in a streamed archive are only known once read, so the copy itself is bounded.
+                long size;
+                try (OutputStream input = Files.newOutputStream(next.input)) {
+                    size = IOUtils.copyLarge(entries, input, 0, maxEntryBytes + 1);
+                } catch (IOException | RuntimeException e) {
+                    next.delete();
+                    throw e;
+                }
+                if (size > maxEntryBytes) {
+                    next.delete();
+                    setResult(result, null, "FAILED", "Workbook is larger than " + (maxEntryBytes >> 20) + " MB");
+                    continue;
+                }
+                try {
+                    next.conversion = executor.submit(() -> convertEntry(next));
+                } catch (RuntimeException e) {
+                    next.delete();
+                    throw e;
+                }
+                pending.add(next);
+                while (pending.size() > poolSize) {
+                    writeEntry(zip, pending.poll(), outputNames);
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeEntry(zip, pending.poll(), outputNames);
+            }
+        } finally {
+            pending.forEach(entry -> {
+                entry.conversion.cancel(true);
+                entry.delete();
+            });
+        }
+
+        zip.putNextEntry(new ZipEntry(MANIFEST_NAME));
+        zip.write(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest));
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Void convertEntry(PendingEntry entry) throws IOException {
+        ConversionStats stats = new ConversionStats();
+        ConversionOptions options = converter.defaultOptions();
+        stats.setInputBytes(Files.size(entry.input));
+        WorkbookEstimate estimate = limiter.estimate(entry.input.toFile());
+        long start = System.nanoTime();
+        try (ConversionLimiter.Permit permit = limiter.acquire(estimate, options.getAdmissionReaderMode())) {
+            stats.endPhase(ConversionStats.Phase.QUEUE, start);
+            stats.setEstimatedHeapBytes(permit.getReservedBytes());
+            start = System.nanoTime();
+            // The PDF file already exists and is not recreated, so a conversion cancelled after the batch has
+            // cleaned up cannot leave a new file behind.
+            try (WorkbookSource workbook = converter.openWorkbook(entry.input.toFile(), entry.name, options.withReaderMode(permit.getReaderMode()));
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(entry.pdf, StandardOpenOption.WRITE))) {
+                stats.endPhase(ConversionStats.Phase.OPEN, start);
+                converter.convert(workbook, out, stats, options);
+            }
+        }
+        stats.setOutputBytes(Files.size(entry.pdf));
+        metrics.record(stats, entry.name);
+        return null;
+    }
+
+    private void writeEntry(ZipOutputStream zip, PendingEntry entry, Set<String> outputNames) throws IOException {
+        try {
+            writeConverted(zip, entry, outputNames);
+        } finally {
+            entry.delete();
+        }
+    }
+
+    private void writeConverted(ZipOutputStream zip, PendingEntry entry, Set<String> outputNames) throws IOException {
+        try {
+            entry.conversion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while converting batch", e);
+        } catch (ExecutionException e) {
+            logger.warn("Batch entry {} failed: {}", entry.name, e.getCause().getMessage());
+            setResult(entry.result, null, "FAILED", String.valueOf(e.getCause().getMessage()));
+            return;
+        }
+        String outputName = uniqueOutputName(ExcelToPdfController.getOutputFileName(entry.name), outputNames);
+        try {
+            zip.putNextEntry(new ZipEntry(outputName));
+        } catch (ZipException e) {
+            logger.warn("Batch entry {} could not be written: {}", entry.name, e.getMessage());
+            setResult(entry.result, null, "FAILED", e.getMessage());
+            return;
+        }
+        Files.copy(entry.pdf, zip);
+        zip.closeEntry();
+        setResult(entry.result, outputName, "CONVERTED", null);
+    }
+
+    /**
+     * The entry name as a relative path with '/' separators and without empty or "." segments, or null when it
+     * is absolute or has a ".." segment. A PDF written under such a name would be extracted outside the
+     * directory the client unpacks the archive into.
+     */
+    static String safePath(String name) {
+        String path = name.replace('\\', '/');
+        if (path.startsWith("/") || (path.length() > 1 && path.charAt(1) == ':')) {
+            return null;
+        }
+        StringJoiner segments = new StringJoiner("/");
+        for (String segment : path.split("/")) {
+            if (segment.equals("..")) {
+                return null;
+            }
+            if (!segment.isEmpty() && !segment.equals(".")) {
+                segments.add(segment);
+            }
+        }
+        return segments.toString();
+    }
+
+    /** The name itself, or the first of name-2.pdf, name-3.pdf, ... that is not taken yet. */
+    static String uniqueOutputName(String name, Set<String> taken) {
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        String candidate = name;
+        for (int i = 2; !taken.add(candidate.toLowerCase(Locale.ROOT)); i++) {
+            candidate = base + "-" + i + extension;
+        }
+        return candidate;
+    }
+
+    private static void setResult(Map<String, String> result, String output, String status, String error) {
+        result.put("output", output);
+        result.put("status", status);
+        result.put("error", error);
+    }
+
+    private static class PendingEntry {
+
+        private final String name;
+        private final Map<String, String> result;
+        private final Path input;
+        private final Path pdf;
+        private Future<Void> conversion;
+
+        PendingEntry(String name, Map<String, String> result, Path input, Path pdf) {
+            this.name = name;
+            this.result = result;
+            this.input = input;
+            this.pdf = pdf;
+        }
+
+        void delete() {
+            FileUtils.deleteQuietly(input.toFile());
+            FileUtils.deleteQuietly(pdf.toFile());
+        }
+    }
+}
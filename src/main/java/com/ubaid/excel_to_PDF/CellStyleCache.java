@@ -0,0 +1,69 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.layout.properties.TextAlignment;
+import org.apache.poi.hssf.util.HSSFColor;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+
+import java.util.Arrays;
+
+/**
+ * Maps the cell styles of one workbook to {@link ResolvedCellStyle}s, keyed by {@link CellStyle#getIndex()}.
+ * Workbooks rarely have more than a few hundred styles, so each is resolved once and shared by all its cells.
+ */
+public class CellStyleCache {
+
+    private ResolvedCellStyle[] resolved = new ResolvedCellStyle[64];
+
+    public ResolvedCellStyle resolve(CellStyle cellStyle, SheetSource sheet) {
+        if (cellStyle == null) {
+            return ResolvedCellStyle.DEFAULT;
+        }
+        int index = cellStyle.getIndex();
+        if (index >= resolved.length) {
+            resolved = Arrays.copyOf(resolved, Math.max(index + 1, resolved.length * 2));
+        }
+        ResolvedCellStyle style = resolved[index];
+        if (style == null) {
+            style = create(cellStyle, sheet);
+            resolved[index] = style;
+        }
+        return style;
+    }
+
+    private static ResolvedCellStyle create(CellStyle cellStyle, SheetSource sheet) {
+        Font font = sheet.getFont(cellStyle);
+        String fontName = font != null ? font.getFontName() : null;
+        boolean bold = font != null && font.getBold();
+        boolean italic = font != null && font.getItalic();
+
+        DeviceRgb backgroundColor = null;
+        org.apache.poi.ss.usermodel.Color color = cellStyle.getFillForegroundColorColor();
+        if (color instanceof XSSFColor) {
+            byte[] rgb = ((XSSFColor) color).getRGB();
+            if (rgb != null && rgb.length == 3) {
+                backgroundColor = new DeviceRgb(rgb[0] & 0xFF, rgb[1] & 0xFF, rgb[2] & 0xFF);
+            }
+        } else if (color instanceof HSSFColor && cellStyle.getFillPattern() != FillPatternType.NO_FILL
+                && ((HSSFColor) color).getIndex() != HSSFColor.HSSFColorPredefined.AUTOMATIC.getIndex()) {
+            // .xls styles always carry a palette colour, so it only counts when the cell is actually filled.
+            short[] rgb = ((HSSFColor) color).getTriplet();
+            backgroundColor = new DeviceRgb(rgb[0], rgb[1], rgb[2]);
+        }
+
+        TextAlignment alignment;
+        HorizontalAlignment horizontalAlignment = cellStyle.getAlignment();
+        if (horizontalAlignment == HorizontalAlignment.CENTER) {
+            alignment = TextAlignment.CENTER;
+        } else if (horizontalAlignment == HorizontalAlignment.RIGHT) {
+            alignment = TextAlignment.RIGHT;
+        } else {
+            alignment = TextAlignment.LEFT;
+        }
+        return new ResolvedCellStyle(fontName, bold, italic, backgroundColor, alignment);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ubaid.excel_to_PDF;
+
+/**
+ * Canonical instances of the display strings of one document, so that repeated values such as categories,
+ * dates and flags are held once by the sheet models instead of once per cell. A direct-mapped table: each
+ * value has one slot, chosen by its hash, and a different value arriving in that slot replaces it. Memory is
+ * fixed however many distinct values the document has, and values that keep recurring keep their slot.
+ * Not thread-safe: a document's sheets are read on one thread.
+ */
+public class CellTextInterner {
+
+    private static final int MAX_LENGTH = 64;
+    private static final int SLOTS = 4096;
+
+    private final String[] slots = new String[SLOTS];
+    private long hits;
+
+    public String intern(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_LENGTH) {
+            return value;
+        }
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+        String canonical = slots[slot];
+        if (canonical != null && canonical != value && canonical.equals(value)) {
+            hits++;
+            return canonical;
+        }
+        slots[slot] = value;
+        return value;
+    }
+
+    /** Values that were replaced by an equal instance seen earlier in the document. */
+    public long getHits() {
+        return hits;
+    }
+}
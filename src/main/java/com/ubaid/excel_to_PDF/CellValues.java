@@ -0,0 +1,120 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Display text of cell values, shared by every reader. Stateless apart from immutable lookup tables, so safe to
+ * call from any thread; numbers and dates are formatted without intermediate {@code Date}, {@code Calendar} or
+ * format objects.
+ */
+final class CellValues {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("'$'M/d/yyyy'$'");
+    /** Text of the small whole numbers that dominate counts, quantities and calendar days. */
+    private static final String[] SMALL_INTEGERS = new String[1024];
+
+    static {
+        for (int i = 0; i < SMALL_INTEGERS.length; i++) {
+            SMALL_INTEGERS[i] = Integer.toString(i);
+        }
+    }
+
+    private CellValues() {
+    }
+
+    static String getCellValue(Cell cell) {
+        if (cell == null || cell.getCellType() == CellType.BLANK) return "";
+        if (cell.getCellType() == CellType.FORMULA) {
+            return getFormulaResult(cell);
+        }
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue() != null ? cell.getStringCellValue().trim() : "";
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    try {
+                        return formatDate(cell.getLocalDateTimeCellValue());
+                    } catch (IllegalStateException e) {
+                        return "";
+                    }
+                }
+                return formatNumber(cell.getNumericCellValue());
+            case BOOLEAN:
+                return cell.getBooleanCellValue() ? "true" : "false";
+            case ERROR:
+                return "";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * The formula's cached result, rendered like a cell of the result's type. Files written by tools that do not
+     * calculate carry no result; the formula itself is shown for those.
+     */
+    static String getFormulaResult(Cell cell) {
+        try {
+            if (cell instanceof XSSFCell && !((XSSFCell) cell).getCTCell().isSetV()) {
+                return cell.getCellFormula() != null ? cell.getCellFormula() : "";
+            }
+            switch (cell.getCachedFormulaResultType()) {
+                case STRING:
+                    return cell.getStringCellValue() != null ? cell.getStringCellValue().trim() : "";
+                case NUMERIC:
+                    if (DateUtil.isCellDateFormatted(cell)) {
+                        return formatDate(cell.getLocalDateTimeCellValue());
+                    }
+                    return formatNumber(cell.getNumericCellValue());
+                case BOOLEAN:
+                    return cell.getBooleanCellValue() ? "true" : "false";
+                default:
+                    return "";
+            }
+        } catch (IllegalStateException e) {
+            return "";
+        }
+    }
+
+    static String formatNumeric(double value, CellStyle style, boolean date1904) {
+        if (style != null && DateUtil.isValidExcelDate(value)
+                && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())) {
+            return formatDate(DateUtil.getLocalDateTime(value, date1904));
+        }
+        return formatNumber(value);
+    }
+
+    /** Whole numbers (within 0.0001) without a fraction, truncated to {@code int} range; others in full. */
+    static String formatNumber(double numericValue) {
+        if (Math.abs(numericValue - Math.round(numericValue)) < 0.0001) {
+            int value = (int) numericValue;
+            return value >= 0 && value < SMALL_INTEGERS.length ? SMALL_INTEGERS[value] : Integer.toString(value);
+        }
+        return Double.toString(numericValue);
+    }
+
+    static String formatDate(LocalDateTime date) {
+        return date != null ? DATE_FORMAT.format(date) : "";
+    }
+
+    /** Whether the value is null or holds only whitespace, no-break spaces, zero-width spaces or byte order marks. */
+    static boolean isBlank(String value) {
+        if (value == null) return true;
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case ' ', '\t', '\n', '\u000B', '\f', '\r', '\u00A0', '\u200B', '\uFEFF' -> {
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.WriterProperties;
+
+/**
+ * How hard the PDF output is compressed: a trade between conversion latency and the size of the file.
+ */
+public enum CompressionProfile {
+    /** Lowest deflate level and a classic cross-reference table; for latency. */
+    FAST(CompressionConstants.BEST_SPEED, false),
+    /** Default deflate level, with objects packed into compressed object streams. */
+    BALANCED(CompressionConstants.DEFAULT_COMPRESSION, true),
+    /**
+     * Maximum deflate level and object streams. Content streams of finished pages are deflated on the
+     * compression pool instead of the layout thread.
+     */
+    COMPACT(CompressionConstants.BEST_COMPRESSION, true);
+
+    private final int compressionLevel;
+    private final boolean fullCompression;
+
+    CompressionProfile(int compressionLevel, boolean fullCompression) {
+        this.compressionLevel = compressionLevel;
+        this.fullCompression = fullCompression;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public boolean isFullCompression() {
+        return fullCompression;
+    }
+
+    public WriterProperties writerProperties() {
+        return new WriterProperties()
+                .setCompressionLevel(compressionLevel)
+                .setFullCompressionMode(fullCompression);
+    }
+}
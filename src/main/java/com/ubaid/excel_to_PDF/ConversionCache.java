@@ -0,0 +1,175 @@
+package com.ubaid.excel_to_PDF;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory LRU cache of converted PDFs, keyed by the SHA-256 of the uploaded workbook and of the renderer options.
+ * Eviction is bounded by the total size of the cached PDFs rather than by entry count.
+ */
+@Component
+public class ConversionCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionCache.class);
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ConversionCache(@Value("${excel-to-pdf.cache.enabled:true}") boolean enabled,
+                           @Value("${excel-to-pdf.cache.max-bytes:256MB}") DataSize maxBytes,
+                           @Value("${excel-to-pdf.cache.max-entry-bytes:32MB}") DataSize maxEntryBytes) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes.toBytes();
+        this.maxEntryBytes = Math.min(maxEntryBytes.toBytes(), this.maxBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String key(InputStream upload, String optionsFingerprint) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = upload.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        String optionsHash = HexFormat.of().formatHex(sha256().digest(optionsFingerprint.getBytes(StandardCharsets.UTF_8)));
+        return contentHash + "-" + optionsHash.substring(0, 16);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("excel_to_pdf.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("excel_to_pdf.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("excel_to_pdf.cache.evictions", evictions, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("excel_to_pdf.cache.size", this, ConversionCache::getTotalBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public synchronized byte[] get(String key) {
+        byte[] pdf = entries.get(key);
+        if (pdf != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return pdf;
+    }
+
+    /** Whether a PDF is cached for the key, without counting a hit or miss. */
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized void put(String key, byte[] pdf) {
+        if (pdf.length > maxEntryBytes) return;
+        byte[] previous = entries.put(key, pdf);
+        totalBytes += pdf.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            totalBytes -= eldest.getValue().length;
+            iterator.remove();
+            evictions.incrementAndGet();
+            logger.debug("Evicted cached PDF {} ({} bytes)", eldest.getKey(), eldest.getValue().length);
+        }
+    }
+
+    /** A buffer that keeps a copy of what is written, up to the per-entry limit, for a later {@link #put}. */
+    public EntryBuffer newEntryBuffer() {
+        return new EntryBuffer(maxEntryBytes);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class EntryBuffer extends OutputStream {
+
+        private final long limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        EntryBuffer(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) {
+            if (buffer == null) return;
+            buffer.write(b);
+            checkLimit();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (buffer == null) return;
+            buffer.write(b, off, len);
+            checkLimit();
+        }
+
+        /** The buffered bytes, or {@code null} when the output outgrew the per-entry limit. */
+        public byte[] toByteArray() {
+            return buffer != null ? buffer.toByteArray() : null;
+        }
+
+        private void checkLimit() {
+            if (buffer.size() > limit) {
+                buffer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ubaid.excel_to_PDF;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+public class ConversionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final Instant createdAt;
+    private final Path inputFile;
+    private final Path resultFile;
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant completedAt;
+    private volatile String error;
+
+    ConversionJob(String id, String fileName, Path inputFile, Path resultFile) {
+        this.id = id;
+        this.fileName = fileName;
+        this.inputFile = inputFile;
+        this.resultFile = resultFile;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    public Path getInputFile() {
+        return inputFile;
+    }
+
+    @JsonIgnore
+    public Path getResultFile() {
+        return resultFile;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markDone() {
+        completedAt = Instant.now();
+        status = Status.DONE;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        completedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,84 @@
+package com.ubaid.excel_to_PDF;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+public class ConversionJobController {
+
+    private final ConversionJobService jobService;
+
+    @Value("${excel-to-pdf.jobs.retry-after:30s}")
+    private Duration retryAfter = Duration.ofSeconds(30);
+
+    public ConversionJobController(ConversionJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ConversionJob> submit(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Uploaded file is empty");
+        }
+        try {
+            ConversionJob job = jobService.submit(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/jobs/" + job.getId()))
+                    .body(job);
+        } catch (WorkbookTooLargeException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()))
+                    .build();
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Error storing upload for conversion: " + e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ConversionJob status(@PathVariable String id) {
+        return findJob(id);
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<Resource> result(@PathVariable String id) {
+        ConversionJob job = findJob(id);
+        if (job.getStatus() == ConversionJob.Status.FAILED) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Conversion failed: " + job.getError());
+        }
+        if (job.getStatus() != ConversionJob.Status.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Conversion is " + job.getStatus());
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + ExcelToPdfController.getOutputFileName(job.getFileName()))
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(new FileSystemResource(job.getResultFile()));
+    }
+
+    private ConversionJob findJob(String id) {
+        ConversionJob job = jobService.getJob(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job " + id);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,176 @@
+package com.ubaid.excel_to_PDF;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs conversions submitted through the job API on a fixed set of workers fed by a bounded queue.
+ * Uploads and results are kept on local disk; finished jobs are removed once their TTL expires.
+ */
+@Service
+public class ConversionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionJobService.class);
+
+    private final ExcelToPdfConverter converter;
+    private final ConversionMetrics metrics;
+    private final ConversionLimiter limiter;
+    private final Path directory;
+    private final Duration resultTtl;
+    private final ThreadPoolExecutor executor;
+    /** Jobs that are running or queued; taken before the upload is stored, so a full queue costs no disk write. */
+    private final Semaphore slots;
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+
+    public ConversionJobService(ExcelToPdfConverter converter, ConversionMetrics metrics, ConversionLimiter limiter,
+                                @Value("${excel-to-pdf.jobs.workers:2}") int workers,
+                                @Value("${excel-to-pdf.jobs.queue-capacity:16}") int queueCapacity,
+                                @Value("${excel-to-pdf.jobs.directory:${java.io.tmpdir}/excel-to-pdf-jobs}") Path directory,
+                                @Value("${excel-to-pdf.jobs.result-ttl:1h}") Duration resultTtl) throws IOException {
+        this.converter = converter;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.directory = Files.createDirectories(directory);
+        this.resultTtl = resultTtl;
+        this.slots = new Semaphore(workers + Math.max(0, queueCapacity));
+        AtomicInteger threadCount = new AtomicInteger();
+        // The slots bound the queue; it is unbounded itself so that a worker which has released its slot but not
+        // yet taken the next job cannot make a queued job bounce.
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "conversion-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stores the upload and queues its conversion.
+     *
+     * @throws IllegalArgumentException   when the upload is not a workbook, or can never fit in the memory budget
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public ConversionJob submit(MultipartFile file) throws IOException {
+        if (!slots.tryAcquire()) {
+            throw new RejectedExecutionException("Conversion job queue is full");
+        }
+        try {
+            return store(file);
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private ConversionJob store(MultipartFile file) throws IOException {
+        String id = UUID.randomUUID().toString();
+        ConversionJob job = new ConversionJob(id, file.getOriginalFilename(), directory.resolve(id + ".upload"), directory.resolve(id + ".pdf"));
+        file.transferTo(job.getInputFile());
+        try {
+            // Fail fast on workbooks that could never be admitted, instead of reporting them as failed jobs.
+            if (limiter.isEnabled()) {
+                limiter.readerModeFor(limiter.estimate(job.getInputFile().toFile()), converter.defaultOptions().getAdmissionReaderMode());
+            }
+        } catch (IllegalArgumentException e) {
+            Files.deleteIfExists(job.getInputFile());
+            throw e;
+        }
+        jobs.put(id, job);
+        try {
+            executor.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            Files.deleteIfExists(job.getInputFile());
+            throw e;
+        }
+        logger.debug("Queued conversion job {} for {}", id, job.getFileName());
+        return job;
+    }
+
+    public ConversionJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void run(ConversionJob job) {
+        job.markRunning();
+        ConversionStats stats = new ConversionStats();
+        ConversionOptions options = converter.defaultOptions();
+        try {
+            stats.setInputBytes(Files.size(job.getInputFile()));
+            WorkbookEstimate estimate = limiter.estimate(job.getInputFile().toFile());
+            long start = System.nanoTime();
+            try (ConversionLimiter.Permit permit = limiter.acquire(estimate, options.getAdmissionReaderMode())) {
+                stats.endPhase(ConversionStats.Phase.QUEUE, start);
+                stats.setEstimatedHeapBytes(permit.getReservedBytes());
+                start = System.nanoTime();
+                try (WorkbookSource workbook = converter.openWorkbook(job.getInputFile().toFile(), job.getFileName(), options.withReaderMode(permit.getReaderMode()));
+                     OutputStream out = Files.newOutputStream(job.getResultFile())) {
+                    stats.endPhase(ConversionStats.Phase.OPEN, start);
+                    converter.convert(workbook, out, stats, options);
+                }
+            }
+            stats.setOutputBytes(Files.size(job.getResultFile()));
+            metrics.record(stats, job.getFileName());
+            job.markDone();
+            logger.debug("Conversion job {} finished", job.getId());
+        } catch (Exception e) {
+            logger.warn("Conversion job {} failed: {}", job.getId(), e.getMessage(), e);
+            deleteQuietly(job.getResultFile());
+            job.markFailed(e.getMessage());
+        } finally {
+            deleteQuietly(job.getInputFile());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${excel-to-pdf.jobs.cleanup-interval:1m}")
+    public void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            if (job.getCompletedAt() == null || job.getCompletedAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.getResultFile());
+            logger.debug("Removed expired conversion job {}", job.getId());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ubaid.excel_to_PDF;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for conversions. Each conversion reserves its estimated heap from a global memory budget
+ * and takes one of a CPU-sized set of slots, so request threads (virtual threads on Java 21) wait here
+ * cheaply instead of oversubscribing the CPU or the heap. A workbook whose DOM estimate exceeds the whole
+ * budget is routed to the streaming reader when that fits, and rejected otherwise.
+ */
+@Component
+public class ConversionLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionLimiter.class);
+
+    private final boolean enabled;
+    private final int permitCount;
+    private final long budgetBytes;
+    private final long maxUncompressedBytes;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    /** Free memory budget in KiB, so that budgets above 2 GB still fit in a semaphore. */
+    private final Semaphore memory;
+
+    @Value("${excel-to-pdf.shared-strings.disk-threshold:8MB}")
+    private DataSize sharedStringsDiskThreshold = DataSize.ofMegabytes(8);
+
+    public ConversionLimiter(@Value("${excel-to-pdf.limiter.enabled:true}") boolean enabled,
+                             @Value("${excel-to-pdf.limiter.max-concurrent:0}") int maxConcurrent,
+                             @Value("${excel-to-pdf.limiter.memory-budget:0}") DataSize memoryBudget,
+                             @Value("${excel-to-pdf.limiter.max-uncompressed:1GB}") DataSize maxUncompressed,
+                             @Value("${excel-to-pdf.limiter.acquire-timeout:60s}") Duration acquireTimeout) {
+        this.enabled = enabled;
+        this.acquireTimeout = acquireTimeout;
+        this.permitCount = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        this.budgetBytes = memoryBudget.toBytes() > 0 ? memoryBudget.toBytes() : Runtime.getRuntime().maxMemory() / 2;
+        this.maxUncompressedBytes = maxUncompressed.toBytes();
+        this.permits = new Semaphore(permitCount, true);
+        this.memory = new Semaphore(toKib(budgetBytes), true);
+        if (enabled) {
+            logger.info("Limiting conversions to {} at a time within a {} MB memory budget", permitCount, budgetBytes >> 20);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getPermitCount() {
+        return permitCount;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getMaxUncompressedBytes() {
+        return maxUncompressedBytes;
+    }
+
+    public long getReservedBytes() {
+        return (long) (toKib(budgetBytes) - memory.availablePermits()) << 10;
+    }
+
+    /** Reads the zip central directory of an in-memory upload; rejects zip bombs. */
+    public WorkbookEstimate estimate(byte[] content) {
+        return WorkbookEstimate.of(content, maxUncompressedBytes).withSharedStringsOnDiskFrom(sharedStringsDiskThreshold.toBytes());
+    }
+
+    /** Reads the zip central directory of an upload on disk; rejects zip bombs. */
+    public WorkbookEstimate estimate(File file) {
+        return WorkbookEstimate.of(file, maxUncompressedBytes).withSharedStringsOnDiskFrom(sharedStringsDiskThreshold.toBytes());
+    }
+
+    /**
+     * Reserves the estimated heap for converting the workbook with the configured reader, waiting up to the
+     * configured timeout for memory and a CPU slot. The returned handle carries the reader to use and
+     * releases both on close; closing it more than once is harmless.
+     *
+     * @throws WorkbookTooLargeException  when the workbook can never fit in the budget
+     * @throws ConversionRejectedException when the budget or the slots stayed busy for the whole timeout
+     */
+    public Permit acquire(WorkbookEstimate estimate, ReaderMode configuredMode) {
+        if (!enabled) {
+            return new Permit(configuredMode, 0, 0, null);
+        }
+        ReaderMode mode = readerModeFor(estimate, configuredMode);
+        long needed = estimate.getHeapBytes(mode);
+        int kib = toKib(needed);
+        long deadline = System.nanoTime() + acquireTimeout.toNanos();
+        try {
+            if (!memory.tryAcquire(kib, acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ConversionRejectedException("Memory budget is fully reserved by running conversions", acquireTimeout);
+            }
+            if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                memory.release(kib);
+                throw new ConversionRejectedException("All " + permitCount + " conversion slots are busy", acquireTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a conversion slot", e);
+        }
+        return new Permit(mode, needed, kib, this);
+    }
+
+    /**
+     * Reader a conversion of the workbook will use: the configured one, or STREAMING when only that fits the budget.
+     *
+     * @throws WorkbookTooLargeException when no reader fits
+     */
+    public ReaderMode readerModeFor(WorkbookEstimate estimate, ReaderMode configuredMode) {
+        boolean dom = configuredMode == ReaderMode.DOM || (configuredMode == ReaderMode.AUTO && estimate.hasDrawings());
+        ReaderMode mode = dom ? ReaderMode.DOM : ReaderMode.STREAMING;
+        long needed = estimate.getHeapBytes(mode);
+        if (needed > budgetBytes && dom && estimate.getStreamingHeapBytes() <= budgetBytes) {
+            logger.warn("Workbook needs about {} MB with the DOM reader, over the {} MB budget; using the streaming reader, which skips pictures",
+                    needed >> 20, budgetBytes >> 20);
+            return ReaderMode.STREAMING;
+        }
+        if (needed > budgetBytes) {
+            throw new WorkbookTooLargeException("Workbook needs about " + (needed >> 20) + " MB to convert, more than the "
+                    + (budgetBytes >> 20) + " MB budget");
+        }
+        return mode;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("excel_to_pdf.limiter.memory.reserved", this, ConversionLimiter::getReservedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("excel_to_pdf.limiter.active", this, limiter -> limiter.permitCount - limiter.getAvailablePermits())
+                .register(registry);
+    }
+
+    private void release(int kib) {
+        permits.release();
+        memory.release(kib);
+    }
+
+    private static int toKib(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (bytes + 1023) >> 10);
+    }
+
+    public static final class Permit implements AutoCloseable {
+
+        private final ReaderMode readerMode;
+        private final long reservedBytes;
+        private final int reservedKib;
+        private ConversionLimiter limiter;
+
+        private Permit(ReaderMode readerMode, long reservedBytes, int reservedKib, ConversionLimiter limiter) {
+            this.readerMode = readerMode;
+            this.reservedBytes = reservedBytes;
+            this.reservedKib = reservedKib;
+            this.limiter = limiter;
+        }
+
+        /** Reader the conversion must use; STREAMING when admission routed a DOM workbook away from the DOM reader. */
+        public ReaderMode getReaderMode() {
+            return readerMode;
+        }
+
+        public long getReservedBytes() {
+            return reservedBytes;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (limiter != null) {
+                limiter.release(reservedKib);
+                limiter = null;
+            }
+        }
+    }
+}
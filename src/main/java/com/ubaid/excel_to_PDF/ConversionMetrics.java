@@ -0,0 +1,77 @@
+package com.ubaid.excel_to_PDF;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link ConversionStats} to Micrometer: a total and a per-phase timer plus volume summaries, all
+ * tagged with {@code mode=calendar|table}. Conversions slower than the configured threshold are logged with
+ * their phase breakdown.
+ */
+@Component
+public class ConversionMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionMetrics.class);
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+
+    public ConversionMetrics(MeterRegistry registry,
+                             @Value("${excel-to-pdf.metrics.slow-conversion-threshold:10s}") Duration slowThreshold) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    public void record(ConversionStats stats, String fileName) {
+        String mode = stats.isCalendar() ? "calendar" : "table";
+        long elapsed = stats.getElapsedNanos();
+
+        Timer.builder("excel_to_pdf.conversion")
+                .description("Total time to convert a workbook")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        for (ConversionStats.Phase phase : ConversionStats.Phase.values()) {
+            Timer.builder("excel_to_pdf.conversion.phase")
+                    .description("Time spent in one conversion phase")
+                    .tags("mode", mode, "phase", phase.name().toLowerCase())
+                    .register(registry)
+                    .record(stats.getPhaseNanos(phase), TimeUnit.NANOSECONDS);
+        }
+        summary("excel_to_pdf.conversion.sheets", null, mode).record(stats.getSheets());
+        summary("excel_to_pdf.conversion.rows", null, mode).record(stats.getRows());
+        summary("excel_to_pdf.conversion.cells", null, mode).record(stats.getCells());
+        summary("excel_to_pdf.conversion.formulas.evaluated", null, mode).record(stats.getFormulasEvaluated());
+        summary("excel_to_pdf.conversion.formulas.cached", null, mode).record(stats.getFormulasCached());
+        summary("excel_to_pdf.conversion.images", null, mode).record(stats.getImages());
+        summary("excel_to_pdf.conversion.images.saved", "bytes", mode).record(stats.getImageBytesSaved());
+        summary("excel_to_pdf.conversion.input", "bytes", mode).record(stats.getInputBytes());
+        summary("excel_to_pdf.conversion.output", "bytes", mode).record(stats.getOutputBytes());
+        summary("excel_to_pdf.conversion.heap.delta", "bytes", mode).record(stats.getPeakHeapDelta());
+        if (stats.getEstimatedHeapBytes() > 0) {
+            summary("excel_to_pdf.conversion.heap.estimate", "bytes", mode).record(stats.getEstimatedHeapBytes());
+        }
+
+        if (elapsed >= slowThreshold.toNanos()) {
+            logger.warn("Slow conversion of {} took {} ms: phases(ms)={}, sheets={}, rows={}, cells={}, formulasEvaluated={}, formulasCached={}, images={}, inputBytes={}, outputBytes={}, heapDelta={}, mode={}",
+                    fileName, elapsed / 1_000_000, stats.getPhaseMillis(), stats.getSheets(), stats.getRows(), stats.getCells(),
+                    stats.getFormulasEvaluated(), stats.getFormulasCached(), stats.getImages(), stats.getInputBytes(), stats.getOutputBytes(), stats.getPeakHeapDelta(), mode);
+        }
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, String mode) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tag("mode", mode)
+                .register(registry);
+    }
+}
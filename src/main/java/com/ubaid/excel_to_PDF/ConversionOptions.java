@@ -0,0 +1,70 @@
+package com.ubaid.excel_to_PDF;
+
+/**
+ * The per-conversion settings a request can choose: which part of the workbook to render, how formula values
+ * are obtained, how tables are laid out, how the PDF is compressed and which reader opens the workbook.
+ * Immutable; {@link ExcelToPdfConverter#defaultOptions()} gives the configured settings and the {@code with}
+ * methods derive a copy, keeping the current value when given null.
+ */
+public class ConversionOptions {
+
+    private final SheetSelection selection;
+    private final FormulaMode formulaMode;
+    private final RenderMode renderMode;
+    private final CompressionProfile compressionProfile;
+    private final ReaderMode readerMode;
+
+    public ConversionOptions(SheetSelection selection, FormulaMode formulaMode, RenderMode renderMode,
+                             CompressionProfile compressionProfile, ReaderMode readerMode) {
+        this.selection = selection;
+        this.formulaMode = formulaMode;
+        this.renderMode = renderMode;
+        this.compressionProfile = compressionProfile;
+        this.readerMode = readerMode;
+    }
+
+    public SheetSelection getSelection() {
+        return selection;
+    }
+
+    public FormulaMode getFormulaMode() {
+        return formulaMode;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    public CompressionProfile getCompressionProfile() {
+        return compressionProfile;
+    }
+
+    public ReaderMode getReaderMode() {
+        return readerMode;
+    }
+
+    /** Reader mode to admit the conversion with: recalculating formulas needs the DOM reader. */
+    public ReaderMode getAdmissionReaderMode() {
+        return formulaMode == FormulaMode.RECALCULATE ? ReaderMode.DOM : readerMode;
+    }
+
+    public ConversionOptions withSelection(SheetSelection selection) {
+        return selection == null ? this : new ConversionOptions(selection, formulaMode, renderMode, compressionProfile, readerMode);
+    }
+
+    public ConversionOptions withFormulaMode(FormulaMode formulaMode) {
+        return formulaMode == null ? this : new ConversionOptions(selection, formulaMode, renderMode, compressionProfile, readerMode);
+    }
+
+    public ConversionOptions withRenderMode(RenderMode renderMode) {
+        return renderMode == null ? this : new ConversionOptions(selection, formulaMode, renderMode, compressionProfile, readerMode);
+    }
+
+    public ConversionOptions withCompressionProfile(CompressionProfile compressionProfile) {
+        return compressionProfile == null ? this : new ConversionOptions(selection, formulaMode, renderMode, compressionProfile, readerMode);
+    }
+
+    public ConversionOptions withReaderMode(ReaderMode readerMode) {
+        return readerMode == null ? this : new ConversionOptions(selection, formulaMode, renderMode, compressionProfile, readerMode);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ubaid.excel_to_PDF;
+
+import java.time.Duration;
+
+/** Thrown when the service is too busy to start a conversion; clients may retry after {@link #getRetryAfter()}. */
+public class ConversionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ConversionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,183 @@
+package com.ubaid.excel_to_PDF;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-conversion phase timings and volume counters, filled in by the converter and recorded by
+ * {@link ConversionMetrics}. Safe to update from the render pool while the calling thread reads sheets.
+ */
+public class ConversionStats {
+
+    public enum Phase {
+        /** Waiting for a conversion permit. */
+        QUEUE,
+        /** Opening the package: zip, styles and shared strings. */
+        OPEN,
+        /** Parsing sheet rows and building the column model. */
+        READ,
+        /** iText layout of the sheet tables. */
+        LAYOUT,
+        /** Extracting and embedding pictures. */
+        IMAGES,
+        /** Closing the PDF document: flushing remaining pages, fonts and the xref table. */
+        CLOSE
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long startHeap = usedHeap();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+    private final int[] concurrentTasks = new int[PHASES.length];
+    private final long[] concurrentStart = new long[PHASES.length];
+    private final AtomicLong peakHeap = new AtomicLong(startHeap);
+    private final AtomicLong sheets = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong cells = new AtomicLong();
+    private final AtomicLong formulaCells = new AtomicLong();
+    private volatile long formulasEvaluated;
+    private final AtomicLong images = new AtomicLong();
+    private final AtomicLong imageBytesSaved = new AtomicLong();
+    private volatile boolean calendar;
+    private volatile long inputBytes;
+    private volatile long outputBytes;
+    private volatile long estimatedHeapBytes;
+
+    /** Adds the time since {@code startNanos} to the phase and samples heap usage. */
+    public void endPhase(Phase phase, long startNanos) {
+        phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - startNanos);
+        peakHeap.accumulateAndGet(usedHeap(), Math::max);
+    }
+
+    /**
+     * Starts one of several tasks of the phase that may run at once. The phase is charged the wall-clock time
+     * during which at least one of them runs, rather than the sum of their times.
+     */
+    public synchronized void enterConcurrentPhase(Phase phase) {
+        if (concurrentTasks[phase.ordinal()]++ == 0) {
+            concurrentStart[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    /** Ends a task started with {@link #enterConcurrentPhase}. */
+    public synchronized void exitConcurrentPhase(Phase phase) {
+        if (--concurrentTasks[phase.ordinal()] == 0) {
+            endPhase(phase, concurrentStart[phase.ordinal()]);
+        }
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public Map<Phase, Long> getPhaseMillis() {
+        Map<Phase, Long> millis = new EnumMap<>(Phase.class);
+        for (Phase phase : PHASES) {
+            millis.put(phase, getPhaseNanos(phase) / 1_000_000);
+        }
+        return millis;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /** Largest increase in used heap over the start of the conversion, sampled at the end of each phase. */
+    public long getPeakHeapDelta() {
+        return Math.max(0, peakHeap.get() - startHeap);
+    }
+
+    public void addSheet(int rowCount, long cellCount) {
+        sheets.incrementAndGet();
+        rows.addAndGet(rowCount);
+        cells.addAndGet(cellCount);
+    }
+
+    public void addFormulaCells(long count) {
+        formulaCells.addAndGet(count);
+    }
+
+    public void setFormulasEvaluated(long count) {
+        this.formulasEvaluated = count;
+    }
+
+    public void addImages(int count) {
+        images.addAndGet(count);
+    }
+
+    /** Image bytes not embedded because a picture was already in the document or was downscaled. */
+    public void addImageBytesSaved(long bytes) {
+        imageBytesSaved.addAndGet(bytes);
+    }
+
+    public long getSheets() {
+        return sheets.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getCells() {
+        return cells.get();
+    }
+
+    /** Formula cells rendered with a result recalculated for this conversion. */
+    public long getFormulasEvaluated() {
+        return formulasEvaluated;
+    }
+
+    /** Formula cells rendered with the result stored in the file. */
+    public long getFormulasCached() {
+        return Math.max(0, formulaCells.get() - formulasEvaluated);
+    }
+
+    public long getImages() {
+        return images.get();
+    }
+
+    public long getImageBytesSaved() {
+        return imageBytesSaved.get();
+    }
+
+    public boolean isCalendar() {
+        return calendar;
+    }
+
+    public void setCalendar(boolean calendar) {
+        this.calendar = calendar;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    public void setInputBytes(long inputBytes) {
+        this.inputBytes = inputBytes;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public void setOutputBytes(long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+
+    /** Heap reserved for the conversion by admission control, from the pre-parse estimate. */
+    public long getEstimatedHeapBytes() {
+        return estimatedHeapBytes;
+    }
+
+    public void setEstimatedHeapBytes(long estimatedHeapBytes) {
+        this.estimatedHeapBytes = estimatedHeapBytes;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
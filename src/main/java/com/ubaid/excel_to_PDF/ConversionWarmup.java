@@ -0,0 +1,190 @@
+package com.ubaid.excel_to_PDF;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts a few synthetic workbooks at startup so POI, XMLBeans and iText classes are loaded and the hot
+ * conversion loops are JIT-compiled before the first real request. The samples cover the calendar and table
+ * paths, both table renderers and the .xlsx and .xls readers, and are converted round after round until one
+ * round takes about as long as the previous one. Application runners finish before Spring Boot marks the
+ * application ready, so the readiness probe keeps failing until the warm-up is over.
+ */
+@Component
+public class ConversionWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionWarmup.class);
+    private static final int MIN_ROUNDS = 3;
+    private static final String[] DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+
+    private final ExcelToPdfConverter converter;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int maxRounds;
+    private final Duration maxDuration;
+    private final double tolerance;
+
+    private volatile long durationNanos;
+    private volatile int rounds;
+
+    public ConversionWarmup(ExcelToPdfConverter converter, MeterRegistry registry,
+                            @Value("${excel-to-pdf.warmup.enabled:false}") boolean enabled,
+                            @Value("${excel-to-pdf.warmup.max-rounds:20}") int maxRounds,
+                            @Value("${excel-to-pdf.warmup.max-duration:60s}") Duration maxDuration,
+                            @Value("${excel-to-pdf.warmup.tolerance:0.1}") double tolerance) {
+        this.converter = converter;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.maxRounds = maxRounds;
+        this.maxDuration = maxDuration;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Sample> samples = List.of(
+                new Sample("warmup-calendar.xlsx", calendarWorkbook(), ReaderMode.AUTO, RenderMode.LAYOUT),
+                new Sample("warmup-table.xlsx", tableWorkbook(new XSSFWorkbook()), ReaderMode.AUTO, RenderMode.LAYOUT),
+                new Sample("warmup-table.xlsx", tableWorkbook(new XSSFWorkbook()), ReaderMode.DOM, RenderMode.FAST_GRID),
+                new Sample("warmup-table.xls", tableWorkbook(new HSSFWorkbook()), ReaderMode.AUTO, RenderMode.LAYOUT));
+
+        long first = 0;
+        long previous = 0;
+        int round = 0;
+        try {
+            while (round < maxRounds) {
+                long roundStart = System.nanoTime();
+                for (Sample sample : samples) {
+                    convert(sample);
+                }
+                long elapsed = System.nanoTime() - roundStart;
+                round++;
+                if (round == 1) {
+                    first = elapsed;
+                }
+                boolean stable = round >= MIN_ROUNDS && Math.abs(elapsed - previous) <= previous * tolerance;
+                previous = elapsed;
+                if (stable || System.nanoTime() - start >= maxDuration.toNanos()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException | java.io.IOException e) {
+            // A failing sample should not keep the application from serving; real requests report their own errors.
+            logger.warn("Conversion warm-up stopped after {} rounds: {}", round, e.getMessage(), e);
+        }
+        durationNanos = System.nanoTime() - start;
+        rounds = round;
+        TimeGauge.builder("excel_to_pdf.warmup.duration", this, TimeUnit.NANOSECONDS, warmup -> warmup.durationNanos)
+                .description("Time spent warming up the conversion path before the application became ready")
+                .register(registry);
+        logger.info("Conversion warm-up finished in {} ms after {} rounds (first round {} ms, last round {} ms)",
+                durationNanos / 1_000_000, round, first / 1_000_000, previous / 1_000_000);
+    }
+
+    public Duration getDuration() {
+        return Duration.ofNanos(durationNanos);
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    private void convert(Sample sample) throws java.io.IOException {
+        ConversionOptions options = converter.defaultOptions().withReaderMode(sample.readerMode()).withRenderMode(sample.renderMode());
+        try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(sample.content()), sample.fileName(), options)) {
+            converter.convert(workbook, NullOutputStream.INSTANCE, new ConversionStats(), options);
+        }
+    }
+
+    private record Sample(String fileName, byte[] content, ReaderMode readerMode, RenderMode renderMode) {
+    }
+
+    /** 300 rows of text, numbers, dates and formulas over 8 columns, with a styled header and filled cells. */
+    private static byte[] tableWorkbook(Workbook created) {
+        try (Workbook workbook = created; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Data");
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            CellStyle headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            CellStyle filled = workbook.createCellStyle();
+            filled.setFillForegroundColor(IndexedColors.LIGHT_YELLOW.getIndex());
+            filled.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            CellStyle date = workbook.createCellStyle();
+            date.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+            Row header = sheet.createRow(0);
+            for (int col = 0; col < 8; col++) {
+                header.createCell(col).setCellValue("Column " + (col + 1));
+                header.getCell(col).setCellStyle(headerStyle);
+            }
+            for (int r = 1; r <= 300; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("Item " + r);
+                row.createCell(1).setCellValue(r * 1.25);
+                row.createCell(2).setCellValue(45000 + r);
+                row.getCell(2).setCellStyle(date);
+                row.createCell(3).setCellValue(r % 3 == 0);
+                row.createCell(4).setCellFormula("B" + (r + 1) + "*2");
+                row.createCell(5).setCellValue("Region " + (r % 7));
+                row.getCell(5).setCellStyle(r % 4 == 0 ? filled : null);
+                row.createCell(6).setCellValue(r * 100);
+                row.createCell(7).setCellValue("Note " + r);
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Error creating warm-up workbook: " + e.getMessage(), e);
+        }
+    }
+
+    /** Two month sheets with a Sun..Sat header row and day numbers. */
+    private static byte[] calendarWorkbook() {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (String month : List.of("Jan", "Feb")) {
+                Sheet sheet = workbook.createSheet(month);
+                Row header = sheet.createRow(0);
+                for (int col = 0; col < DAYS.length; col++) {
+                    header.createCell(col).setCellValue(DAYS[col]);
+                }
+                int day = 1;
+                for (int week = 1; week <= 5; week++) {
+                    Row row = sheet.createRow(week);
+                    for (int col = 0; col < DAYS.length && day <= 28; col++, day++) {
+                        row.createCell(col).setCellValue(day);
+                    }
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Error creating warm-up workbook: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared strings table that keeps the strings off the heap, for workbooks whose sharedStrings.xml is large.
+ * The XML is parsed once with SAX and the UTF-8 bytes of every string are appended to a temporary file,
+ * from which strings are read back with positional channel reads. The heap holds only an offset per string
+ * and a small LRU of decoded strings, so it stays flat however large the table is. Phonetic runs are skipped,
+ * as with {@code ReadOnlySharedStringsTable(pkg, false)}.
+ * <p>
+ * The file is deliberately not memory-mapped: a mapping is only released by garbage collection, so the file
+ * would stay in use after {@link #close}.
+ */
+public class DiskSharedStringsTable implements SharedStrings, Closeable {
+
+    /** Excel's escape for characters XML cannot carry, decoded like {@link XSSFRichTextString#getString()}. */
+    private static final Pattern UTF_ESCAPE = Pattern.compile("_x([0-9A-Fa-f]{4})_");
+
+    private final Path file;
+    private final FileChannel channel;
+    /** String {@code i} occupies bytes {@code offsets[i]} to {@code offsets[i + 1]} of the file. */
+    private long[] offsets = new long[1];
+    private int uniqueCount;
+    private int count;
+    private final Map<Integer, String> recent;
+
+    /**
+     * @param sharedStringsXml content of sharedStrings.xml
+     * @param cacheEntries     decoded strings kept on the heap, most recently used first
+     */
+    public DiskSharedStringsTable(InputStream sharedStringsXml, int cacheEntries) throws IOException, SAXException {
+        this.file = Files.createTempFile("excel-to-pdf-strings-", ".bin");
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                StreamingWorkbookSource.parse(sharedStringsXml, new StringsHandler(out));
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException | SAXException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /** The string at {@code index}; cheaper than {@link #getItemAt}, which wraps it in a rich-text object. */
+    public String getString(int index) {
+        if (index < 0 || index >= uniqueCount) {
+            throw new IndexOutOfBoundsException("Shared string " + index + " out of range (" + uniqueCount + " strings)");
+        }
+        synchronized (recent) {
+            String cached = recent.get(index);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] bytes = new byte[(int) (offsets[index + 1] - offsets[index])];
+        read(offsets[index], bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        synchronized (recent) {
+            recent.put(index, value);
+        }
+        return value;
+    }
+
+    @Override
+    public RichTextString getItemAt(int index) {
+        return new XSSFRichTextString(getString(index));
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void read(long position, byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of shared strings file");
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading shared string: " + e.getMessage(), e);
+        }
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf("_x") < 0) {
+            return value;
+        }
+        Matcher matcher = UTF_ESCAPE.matcher(value);
+        StringBuilder decoded = new StringBuilder(value.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(decoded, "");
+            decoded.append((char) Integer.parseInt(matcher.group(1), 16));
+        }
+        matcher.appendTail(decoded);
+        return decoded.toString();
+    }
+
+    /** Appends each {@code <si>} item's text to the file and records where it ends. */
+    private class StringsHandler extends DefaultHandler {
+
+        private final OutputStream out;
+        private final StringBuilder text = new StringBuilder();
+        private long position;
+        private boolean inText;
+        private boolean inPhonetic;
+
+        StringsHandler(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "sst" -> {
+                    String total = attributes.getValue("count");
+                    count = total != null ? Integer.parseInt(total) : -1;
+                    String unique = attributes.getValue("uniqueCount");
+                    if (unique != null) {
+                        // Only a hint: it sizes the offsets up front and is capped in case it is wrong.
+                        offsets = new long[Math.min(Integer.parseInt(unique), 1 << 20) + 1];
+                    }
+                }
+                case "si" -> text.setLength(0);
+                case "rPh" -> inPhonetic = true;
+                case "t" -> inText = !inPhonetic;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "si" -> append();
+                case "rPh" -> inPhonetic = false;
+                case "t" -> inText = false;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void append() throws SAXException {
+            byte[] bytes = decode(text.toString()).getBytes(StandardCharsets.UTF_8);
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new SAXException("Error writing shared strings: " + e.getMessage(), e);
+            }
+            position += bytes.length;
+            if (uniqueCount + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[++uniqueCount] = position;
+        }
+
+        @Override
+        public void endDocument() {
+            if (count < 0) {
+                count = uniqueCount;
+            }
+        }
+    }
+}
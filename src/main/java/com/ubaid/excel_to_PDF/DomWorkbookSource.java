@@ -0,0 +1,180 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Workbook source backed by a fully loaded POI {@link Workbook}. Needed for features that require
+ * random access to the sheet, such as drawings.
+ */
+public class DomWorkbookSource implements WorkbookSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomWorkbookSource.class);
+
+    private final Workbook workbook;
+    private final List<DomSheetSource> sheets = new ArrayList<>();
+    private int formulasEvaluated;
+
+    public DomWorkbookSource(Workbook workbook) {
+        this(workbook, SheetSelection.ALL);
+    }
+
+    /** Exposes only the selected sheets; the workbook itself has already loaded all of them. */
+    public DomWorkbookSource(Workbook workbook, SheetSelection selection) {
+        this.workbook = workbook;
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            names.add(workbook.getSheetName(i));
+        }
+        for (int i : selection.select(names)) {
+            String printArea = selection.isPrintAreaOnly() ? workbook.getPrintArea(i) : null;
+            sheets.add(new DomSheetSource(workbook.getSheetAt(i), selection.rangeFor(names.get(i), printArea)));
+        }
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return Collections.unmodifiableList(sheets);
+    }
+
+    /**
+     * Recalculates the formula cells of the selected sheets and ranges and stores each result as the cell's
+     * cached value, which the rows then render. A single evaluator serves the whole pass, so the result of
+     * every precedent cell, on any sheet, is computed once and reused. Cells still left when the budget runs
+     * out, and formulas POI cannot evaluate, keep the result stored in the file.
+     *
+     * @return number of cells recalculated
+     */
+    public int recalculateFormulas(Duration budget) {
+        FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        evaluator.setIgnoreMissingWorkbooks(true);
+        long deadline = System.nanoTime() + budget.toNanos();
+        int failed = 0;
+        for (DomSheetSource sheet : sheets) {
+            CellRangeAddress range = sheet.range;
+            int lastRow = range != null ? Math.min(range.getLastRow(), sheet.sheet.getLastRowNum()) : sheet.sheet.getLastRowNum();
+            for (int rowIndex = range != null ? range.getFirstRow() : 0; rowIndex <= lastRow; rowIndex++) {
+                Row row = sheet.sheet.getRow(rowIndex);
+                if (row == null) continue;
+                for (Cell cell : row) {
+                    if (cell.getCellType() != CellType.FORMULA || (range != null && !range.isInRange(cell))) continue;
+                    if (System.nanoTime() > deadline) {
+                        logger.warn("Formula recalculation ran out of its {} ms budget after {} cells; the rest keep their cached results",
+                                budget.toMillis(), formulasEvaluated);
+                        return formulasEvaluated;
+                    }
+                    try {
+                        evaluator.evaluateFormulaCell(cell);
+                        formulasEvaluated++;
+                    } catch (RuntimeException e) {
+                        failed++;
+                        logger.debug("Keeping cached result of {}!{}: {}", sheet.getSheetName(), cell.getAddress(), e.getMessage());
+                    }
+                }
+            }
+        }
+        if (failed > 0) {
+            logger.info("Recalculated {} formula cells; {} could not be evaluated and keep their cached results", formulasEvaluated, failed);
+        }
+        return formulasEvaluated;
+    }
+
+    @Override
+    public int getFormulasEvaluated() {
+        return formulasEvaluated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    private static class DomSheetSource implements SheetSource {
+
+        private final Sheet sheet;
+        private final CellRangeAddress range;
+
+        DomSheetSource(Sheet sheet, CellRangeAddress range) {
+            this.sheet = sheet;
+            this.range = range;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheet.getSheetName();
+        }
+
+        @Override
+        public void readRows(RowHandler handler) {
+            int firstRow = range != null ? range.getFirstRow() : 0;
+            int lastRow = range != null ? Math.min(range.getLastRow(), sheet.getLastRowNum()) : sheet.getLastRowNum();
+            int firstColumn = range != null ? range.getFirstColumn() : 0;
+            for (int rowIndex = firstRow; rowIndex <= lastRow; rowIndex++) {
+                Row row = sheet.getRow(rowIndex);
+                if (row == null) continue;
+                int lastCellNum = Math.max(row.getLastCellNum(), 0);
+                if (range != null) {
+                    lastCellNum = Math.min(lastCellNum, range.getLastColumn() + 1);
+                }
+                String[] values = new String[Math.max(lastCellNum, 0)];
+                CellStyle[] styles = new CellStyle[values.length];
+                int physicalCells = range != null ? 0 : row.getPhysicalNumberOfCells();
+                int formulaCells = 0;
+                for (int col = firstColumn; col < lastCellNum; col++) {
+                    if (range != null && row.getCell(col) != null) {
+                        physicalCells++;
+                    }
+                    Cell cell = row.getCell(col, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
+                    values[col] = CellValues.getCellValue(cell);
+                    styles[col] = cell.getCellStyle();
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        formulaCells++;
+                    }
+                }
+                if (!handler.handleRow(new SheetRow(rowIndex, values, styles, physicalCells, formulaCells))) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public CellRangeAddress getRange() {
+            return range;
+        }
+
+        @Override
+        public int getColumnWidth(int col) {
+            return sheet.getColumnWidth(col);
+        }
+
+        @Override
+        public boolean isLandscape() {
+            return sheet.getPrintSetup().getLandscape();
+        }
+
+        @Override
+        public Font getFont(CellStyle style) {
+            return sheet.getWorkbook().getFontAt(style.getFontIndexAsInt());
+        }
+
+        @Override
+        public Sheet getSheet() {
+            return sheet;
+        }
+    }
+}
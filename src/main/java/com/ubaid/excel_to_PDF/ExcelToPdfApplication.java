@@ -2,8 +2,10 @@ package com.ubaid.excel_to_PDF;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ExcelToPdfApplication {
 
 	public static void main(String[] args) {
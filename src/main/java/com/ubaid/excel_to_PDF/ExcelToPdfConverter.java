@@ -0,0 +1,853 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.exceptions.IOException;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFPicture;
+import org.apache.poi.xssf.usermodel.XSSFDrawing;
+import org.apache.poi.xssf.usermodel.XSSFShape;
+import org.apache.poi.xssf.usermodel.XSSFPictureData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+public class ExcelToPdfConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExcelToPdfConverter.class);
+    // Bump when a change alters the PDF produced for the same workbook, so cached results are not reused
+    private static final String RENDERER_VERSION = "3";
+    private static final float A4_WIDTH = PageSize.A4.getWidth();
+    private static final float A4_HEIGHT = PageSize.A4.getHeight();
+    static final float MARGIN = 36f;
+    private static final float MAX_TABLE_WIDTH = A4_WIDTH - 2 * MARGIN;
+    private static final int MAX_COLUMNS_PER_TABLE = 5; // For normal tables
+    private static final int MAX_COLUMNS = 7; // For calendars
+    static final Color HEADER_BG_COLOR = new DeviceRgb(230, 230, 230);
+    static final Color ROW_EVEN_BG_COLOR = new DeviceRgb(245, 245, 245);
+    static final Color ROW_ODD_BG_COLOR = new DeviceRgb(255, 255, 255);
+    private static final Border CELL_BORDER = new SolidBorder(1f);
+    private static final Pattern DAY_PATTERN = Pattern.compile("^(Sun|Mon|Tue|Wed|Thu|Fri|Sat|Sunday|Monday|Tuesday|Wednesday|Thursday|Friday|Saturday)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MONTH_PATTERN = Pattern.compile("^(Jan|Feb|Mar|Apr|May|Jun|Jul|Aug|Sep|Oct|Nov|Dec|January|February|March|April|May|June|July|August|September|October|November|December)", Pattern.CASE_INSENSITIVE);
+    private static final String[] DAY_HEADERS = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+    private static final String[] MONTHS_WITH_NOTES = {"April", "July", "December"};
+    private static final int DAYS_IN_WEEK = 7;
+    private static final int MAX_WEEKS = 6;
+
+    @Value("${excel-to-pdf.reader.mode:auto}")
+    private ReaderMode readerMode = ReaderMode.AUTO;
+
+    @Value("${excel-to-pdf.table.flush-rows:100}")
+    private int tableFlushRows = 100;
+
+    @Value("${excel-to-pdf.render.mode:layout}")
+    private RenderMode renderMode = RenderMode.LAYOUT;
+
+    @Value("${excel-to-pdf.render.fast-grid-rows:10000}")
+    private int fastGridRows = 10000;
+
+    @Value("${excel-to-pdf.images.max-dpi:0}")
+    private int imageMaxDpi = 0;
+
+    @Value("${excel-to-pdf.formulas.mode:cached}")
+    private FormulaMode formulaMode = FormulaMode.CACHED;
+
+    @Value("${excel-to-pdf.formulas.recalculation-budget:10s}")
+    private Duration recalculationBudget = Duration.ofSeconds(10);
+
+    @Value("${excel-to-pdf.output.compression:balanced}")
+    private CompressionProfile compressionProfile = CompressionProfile.BALANCED;
+
+    @Value("${excel-to-pdf.shared-strings.disk-threshold:8MB}")
+    private DataSize sharedStringsDiskThreshold = DataSize.ofMegabytes(8);
+
+    @Value("${excel-to-pdf.shared-strings.cache-entries:4096}")
+    private int sharedStringsCacheEntries = 4096;
+
+    private final FontRegistry fontRegistry;
+    private final boolean parallelRendering;
+    private final int renderPoolSize;
+    private final ExecutorService renderExecutor;
+    private final ExecutorService compressionExecutor;
+
+    /** Standalone converter with its own font registry of the standard fonts. */
+    public ExcelToPdfConverter(boolean parallelRendering, int renderPoolSize) {
+        this(new FontRegistry(null), parallelRendering, renderPoolSize);
+    }
+
+    @Autowired
+    public ExcelToPdfConverter(FontRegistry fontRegistry,
+                               @Value("${excel-to-pdf.parallel.enabled:false}") boolean parallelRendering,
+                               @Value("${excel-to-pdf.parallel.pool-size:0}") int renderPoolSize) {
+        this.fontRegistry = fontRegistry;
+        this.parallelRendering = parallelRendering;
+        this.renderPoolSize = renderPoolSize > 0 ? renderPoolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.renderExecutor = Executors.newFixedThreadPool(this.renderPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "sheet-render-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger compressionThreadCount = new AtomicInteger();
+        this.compressionExecutor = Executors.newFixedThreadPool(this.renderPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-compress-" + compressionThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** The configured settings, which a request may override. */
+    public ConversionOptions defaultOptions() {
+        return new ConversionOptions(SheetSelection.ALL, formulaMode, renderMode, compressionProfile, readerMode);
+    }
+
+    /** Identifies every setting that affects the PDF produced with {@code options}; part of the conversion cache key. */
+    public String fingerprint(ConversionOptions options) {
+        FormulaMode formulas = options.getFormulaMode();
+        return "renderer=" + RENDERER_VERSION + ";compression=" + options.getCompressionProfile() + ";formulas=" + formulas
+                + (formulas == FormulaMode.RECALCULATE ? ";recalculationBudget=" + recalculationBudget.toMillis() : "") + ";render=" + options.getRenderMode() + ";fastGridRows=" + fastGridRows + ";reader=" + options.getReaderMode() + ";flushRows=" + tableFlushRows
+                + ";parallel=" + parallelRendering + ";imageDpi=" + imageMaxDpi
+                + ";fonts=" + fontRegistry.getFingerprint() + options.getSelection().getFingerprint();
+    }
+
+    /** Opens the selected sheets of a workbook from a stream, recalculating their formulas if asked to. */
+    public WorkbookSource openWorkbook(InputStream in, String fileName, ConversionOptions options) throws java.io.IOException {
+        InputStream buffered = FileMagic.prepareToCheckMagic(in);
+        if (FileMagic.valueOf(buffered) == FileMagic.OLE2) {
+            return openLegacy(new POIFSFileSystem(buffered), fileName, options);
+        }
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(buffered);
+        } catch (InvalidFormatException e) {
+            throw new IllegalArgumentException("Uploaded file is not a valid .xlsx or .xls workbook: " + e.getMessage(), e);
+        }
+        return openPackage(pkg, fileName, options);
+    }
+
+    /**
+     * Opens the selected sheets of a workbook kept on local disk. Zip entries are read on demand from the file
+     * rather than all being inflated into memory up front, as happens when the package is opened from a stream,
+     * and the parts of unselected sheets are never inflated.
+     */
+    public WorkbookSource openWorkbook(File file, String fileName, ConversionOptions options) throws java.io.IOException {
+        if (FileMagic.valueOf(file) == FileMagic.OLE2) {
+            return openLegacy(new POIFSFileSystem(file, true), fileName, options);
+        }
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException | NotOfficeXmlFileException e) {
+            throw new IllegalArgumentException("Uploaded file is not a valid .xlsx or .xls workbook: " + e.getMessage(), e);
+        }
+        return openPackage(pkg, fileName, options);
+    }
+
+    /**
+     * Legacy .xls workbooks are read with the HSSF event model whatever the reader mode: pictures are only
+     * extracted from .xlsx drawings, so loading the whole BIFF file into an HSSFWorkbook would gain nothing.
+     * Recalculating formulas is the exception, as the evaluator needs the whole workbook.
+     */
+    private WorkbookSource openLegacy(POIFSFileSystem fileSystem, String fileName, ConversionOptions options) throws java.io.IOException {
+        ReaderMode mode = options.getReaderMode();
+        SheetSelection selection = options.getSelection();
+        FormulaMode formulas = options.getFormulaMode();
+        if (formulas == FormulaMode.RECALCULATE && mode != ReaderMode.STREAMING) {
+            logger.debug("Reading legacy workbook {} with the DOM reader to recalculate formulas", fileName);
+            return recalculate(new DomWorkbookSource(new HSSFWorkbook(fileSystem), selection), fileName);
+        }
+        keepCachedResults(formulas, fileName);
+        if (mode == ReaderMode.DOM) {
+            logger.debug("Reading legacy workbook {} with the streaming reader instead of the DOM reader", fileName);
+        } else {
+            logger.debug("Reading legacy workbook {} with the streaming reader", fileName);
+        }
+        return new HssfStreamingWorkbookSource(fileSystem, selection);
+    }
+
+    /**
+     * With a selection, only the selected sheets' drawings count for AUTO mode, so a workbook whose pictures
+     * sit on other sheets is still streamed. The DOM reader loads every sheet whatever the selection.
+     */
+    private WorkbookSource openPackage(OPCPackage pkg, String fileName, ConversionOptions options) throws java.io.IOException {
+        ReaderMode mode = options.getReaderMode();
+        SheetSelection selection = options.getSelection();
+        FormulaMode formulas = options.getFormulaMode();
+        try {
+            boolean hasDrawings = selection.isAll()
+                    ? !pkg.getPartsByContentType(XSSFRelation.DRAWINGS.getContentType()).isEmpty()
+                    : StreamingWorkbookSource.hasDrawings(pkg, selection);
+            boolean recalculate = formulas == FormulaMode.RECALCULATE && mode != ReaderMode.STREAMING;
+            if (mode == ReaderMode.DOM || (mode == ReaderMode.AUTO && hasDrawings) || recalculate) {
+                logger.debug("Reading workbook {} with the DOM reader", fileName);
+                DomWorkbookSource workbook = new DomWorkbookSource(new XSSFWorkbook(pkg), selection);
+                return recalculate ? recalculate(workbook, fileName) : workbook;
+            }
+            keepCachedResults(formulas, fileName);
+            if (hasDrawings) {
+                logger.warn("Streaming reader ignores drawings in workbook {}", fileName);
+            }
+            logger.debug("Reading workbook {} with the streaming reader", fileName);
+            return new StreamingWorkbookSource(pkg, selection, sharedStringsDiskThreshold.toBytes(), sharedStringsCacheEntries);
+        } catch (RuntimeException | java.io.IOException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    private DomWorkbookSource recalculate(DomWorkbookSource workbook, String fileName) {
+        long start = System.nanoTime();
+        int evaluated = workbook.recalculateFormulas(recalculationBudget);
+        logger.debug("Recalculated {} formula cells of {} in {} ms", evaluated, fileName, (System.nanoTime() - start) / 1_000_000);
+        return workbook;
+    }
+
+    /** Recalculation was asked for but the streaming reader was chosen, e.g. because the DOM reader did not fit the memory budget. */
+    private static void keepCachedResults(FormulaMode formulas, String fileName) {
+        if (formulas == FormulaMode.RECALCULATE) {
+            logger.info("Workbook {} is streamed, so its formulas keep their cached results", fileName);
+        }
+    }
+
+    /** Converts the workbook with the given options, recording phase timings and volumes into {@code stats}. */
+    public void convert(WorkbookSource workbook, OutputStream out, ConversionStats stats, ConversionOptions options) {
+        RenderMode renderMode = options.getRenderMode();
+        CompressionProfile compression = options.getCompressionProfile();
+        if (parallelRendering) {
+            convertInParallel(workbook, out, stats, renderMode, compression);
+            return;
+        }
+        PdfDocument pdf = openPdf(out, compression);
+        pdf.setDefaultPageSize(PageSize.A4);
+        Document document = new Document(pdf, PageSize.A4);
+        FontRegistry.DocumentFonts fonts = fontRegistry.forDocument();
+
+        List<SheetSource> sheets = workbook.getSheets();
+        stats.setFormulasEvaluated(workbook.getFormulasEvaluated());
+        CellStyleCache styleCache = new CellStyleCache();
+        CellTextInterner interner = new CellTextInterner();
+        ImageCache imageCache = new ImageCache(maxImagePixels());
+        Map<ImageData, PdfImageXObject> xObjects = ImageCache.newXObjectMap();
+        boolean isCalendarDocument = isCalendarDocument(sheets);
+        stats.setCalendar(isCalendarDocument);
+
+        if (isCalendarDocument) {
+            addTitlePage(document, fonts.bold());
+            document.getPdfDocument().addNewPage();
+        }
+
+        for (int i = 0; i < sheets.size(); i++) {
+            SheetSource sheet = sheets.get(i);
+            if (i > 0 || isCalendarDocument) {
+                document.getPdfDocument().addNewPage();
+                logger.debug("Added new page for sheet {}", sheet.getSheetName());
+            }
+            long start = System.nanoTime();
+            SheetModel model = SheetModel.read(sheet, interner);
+            stats.endPhase(ConversionStats.Phase.READ, start);
+            stats.addSheet(model.getRowCount(), model.getCellCount());
+            stats.addFormulaCells(model.getFormulaCellCount());
+
+            PageSize pageSize = determinePageSize(sheet);
+            document.getPdfDocument().setDefaultPageSize(pageSize);
+            document.setMargins(MARGIN, MARGIN, MARGIN, MARGIN);
+            start = System.nanoTime();
+            createSheetTable(document, model, styleCache, fonts, renderMode);
+            stats.endPhase(ConversionStats.Phase.LAYOUT, start);
+
+            if (sheet.getSheet() != null) {
+                start = System.nanoTime();
+                List<ImageData> images = extractImagesFromSheet(sheet.getSheet(), imageCache);
+                addImages(document, sheet.getSheetName(), images, xObjects);
+                stats.addImages(images.size());
+                stats.endPhase(ConversionStats.Phase.IMAGES, start);
+            }
+        }
+        stats.addImageBytesSaved(imageCache.getBytesSaved());
+
+        long start = System.nanoTime();
+        document.close();
+        stats.endPhase(ConversionStats.Phase.CLOSE, start);
+    }
+
+    /**
+     * Renders every sheet into its own in-memory PDF on the render pool and merges the parts in sheet order.
+     * Sheets are read on the calling thread, since workbook sources are not safe for concurrent use; at most
+     * pool-size parts are rendered but not yet merged at any time.
+     */
+    private void convertInParallel(WorkbookSource workbook, OutputStream out, ConversionStats stats, RenderMode renderMode,
+                                   CompressionProfile compression) {
+        // Parts are separate documents, so an image placed on several sheets arrives once per part; smart
+        // mode writes identical copied objects only once. Their streams arrive compressed by the render pool.
+        PdfWriter writer = new PdfWriter(out, compression.writerProperties().useSmartMode());
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        PdfMerger merger = new PdfMerger(pdf);
+
+        List<SheetSource> sheets = workbook.getSheets();
+        stats.setFormulasEvaluated(workbook.getFormulasEvaluated());
+        boolean isCalendarDocument = isCalendarDocument(sheets);
+        stats.setCalendar(isCalendarDocument);
+        if (isCalendarDocument) {
+            mergePart(merger, renderPart(PageSize.A4, compression, document -> addTitlePage(document, fontRegistry.forDocument().bold())));
+        }
+
+        ImageCache imageCache = new ImageCache(maxImagePixels());
+        CellTextInterner interner = new CellTextInterner();
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        try {
+            for (SheetSource sheet : sheets) {
+                long start = System.nanoTime();
+                SheetModel model = SheetModel.read(sheet, interner);
+                stats.endPhase(ConversionStats.Phase.READ, start);
+                stats.addSheet(model.getRowCount(), model.getCellCount());
+                stats.addFormulaCells(model.getFormulaCellCount());
+                PageSize pageSize = determinePageSize(sheet);
+                start = System.nanoTime();
+                List<ImageData> extracted = sheet.getSheet() != null ? extractImagesFromSheet(sheet.getSheet(), imageCache) : List.of();
+                Map<ImageData, PdfImageXObject> xObjects = ImageCache.newXObjectMap();
+                List<ImageData> images = createXObjects(sheet.getSheetName(), extracted, xObjects);
+                stats.addImages(extracted.size());
+                stats.endPhase(ConversionStats.Phase.IMAGES, start);
+                pending.add(renderExecutor.submit(() -> renderPart(pageSize, compression, document -> {
+                    stats.enterConcurrentPhase(ConversionStats.Phase.LAYOUT);
+                    try {
+                        createSheetTable(document, model, new CellStyleCache(), fontRegistry.forDocument(), renderMode);
+                        addImages(document, model.getSheetName(), images, xObjects);
+                    } finally {
+                        stats.exitConcurrentPhase(ConversionStats.Phase.LAYOUT);
+                    }
+                })));
+                while (pending.size() > renderPoolSize) {
+                    mergePart(merger, awaitPart(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                mergePart(merger, awaitPart(pending.poll()));
+            }
+        } finally {
+            pending.forEach(part -> part.cancel(true));
+        }
+        stats.addImageBytesSaved(imageCache.getBytesSaved());
+
+        if (pdf.getNumberOfPages() == 0) {
+            pdf.addNewPage();
+        }
+        long start = System.nanoTime();
+        pdf.close();
+        stats.endPhase(ConversionStats.Phase.CLOSE, start);
+    }
+
+    private byte[] renderPart(PageSize pageSize, CompressionProfile compression, Consumer<Document> content) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdf = new PdfDocument(new PdfWriter(baos, new WriterProperties().setCompressionLevel(compression.getCompressionLevel())));
+        pdf.setDefaultPageSize(pageSize);
+        Document document = new Document(pdf, pageSize);
+        document.setMargins(MARGIN, MARGIN, MARGIN, MARGIN);
+        content.accept(document);
+        // An empty sheet still gets its blank page, as in the sequential path.
+        if (pdf.getNumberOfPages() == 0) {
+            pdf.addNewPage();
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private byte[] awaitPart(Future<byte[]> part) {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while rendering sheets", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to render sheet: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void mergePart(PdfMerger merger, byte[] part) {
+        try (PdfDocument partPdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(part)))) {
+            merger.merge(partPdf, 1, partPdf.getNumberOfPages());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Failed to merge rendered sheet: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens the output document with the given compression; {@code out} is left open. With the compact
+     * profile the content streams of finished pages are deflated on the compression pool.
+     */
+    private PdfDocument openPdf(OutputStream out, CompressionProfile compression) {
+        if (compression != CompressionProfile.COMPACT) {
+            PdfWriter writer = new PdfWriter(out, compression.writerProperties());
+            writer.setCloseStream(false);
+            return new PdfDocument(writer);
+        }
+        ParallelCompressionPdfWriter writer = new ParallelCompressionPdfWriter(out, compression.writerProperties(),
+                compressionExecutor, 2 * renderPoolSize);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        pdf.addEventHandler(PdfDocumentEvent.END_PAGE, writer);
+        return pdf;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderExecutor.shutdownNow();
+        compressionExecutor.shutdownNow();
+    }
+
+    private boolean isCalendarDocument(List<SheetSource> sheets) {
+        if (sheets.isEmpty()) return false;
+        SheetSource sheet = sheets.get(0);
+        SheetRow headerRow = readHeaderRow(sheet);
+        if (headerRow == null) return false;
+        int firstCol = sheet.getRange() != null ? sheet.getRange().getFirstColumn() : 0;
+        int dayCount = 0;
+        for (int col = firstCol; col < firstCol + 7; col++) {
+            String cellValue = headerRow.getValue(col);
+            if (DAY_PATTERN.matcher(cellValue).matches()) {
+                dayCount++;
+            }
+        }
+        return dayCount >= 5;
+    }
+
+    private void addTitlePage(Document document, PdfFont fontBold) {
+        document.add(new Paragraph("2023")
+                .setFont(fontBold)
+                .setFontSize(24)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginTop(PageSize.A4.getHeight() / 2 - 24));
+        logger.debug("Added title page with '2023'");
+    }
+
+    /**
+     * Longest image side worth embedding at the configured resolution: the content width of a landscape A4
+     * page, the largest area an auto-scaled image is rendered into. 0 when downscaling is disabled.
+     */
+    private int maxImagePixels() {
+        if (imageMaxDpi <= 0) return 0;
+        return (int) Math.ceil((A4_HEIGHT - 2 * MARGIN) / 72f * Math.max(72, imageMaxDpi));
+    }
+
+    /**
+     * Creates the XObjects of a part's images up front, on the calling thread. Creating an XObject updates its
+     * ImageData, which the image cache shares between sheets, so this must not happen concurrently on the
+     * render pool. Returns the images whose XObject could be created.
+     */
+    private List<ImageData> createXObjects(String sheetName, List<ImageData> images, Map<ImageData, PdfImageXObject> xObjects) {
+        List<ImageData> created = new ArrayList<>(images.size());
+        for (ImageData imageData : images) {
+            try {
+                ImageCache.xObject(xObjects, imageData);
+                created.add(imageData);
+            } catch (IOException e) {
+                logger.warn("Skipping invalid image in sheet {}: {}", sheetName, e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    private void addImages(Document document, String sheetName, List<ImageData> images, Map<ImageData, PdfImageXObject> xObjects) {
+        for (ImageData imageData : images) {
+            try {
+                com.itextpdf.layout.element.Image pdfImage = new com.itextpdf.layout.element.Image(ImageCache.xObject(xObjects, imageData));
+                pdfImage.setAutoScale(true);
+                document.add(pdfImage);
+                logger.info("Added image to PDF for sheet: {}", sheetName);
+            } catch (IOException e) {
+                logger.warn("Skipping invalid image in sheet {}: {}", sheetName, e.getMessage());
+            }
+        }
+    }
+
+    /** The header row as {@link SheetModel} picks it, or null when that row is empty. */
+    private SheetRow readHeaderRow(SheetSource sheet) {
+        int headerRowIndex = SheetModel.headerRowIndex(sheet);
+        SheetRow[] headerRow = new SheetRow[1];
+        sheet.readRows(row -> {
+            if (row.getRowIndex() == headerRowIndex) {
+                headerRow[0] = row;
+            }
+            return false;
+        });
+        return headerRow[0];
+    }
+
+    private PageSize determinePageSize(SheetSource sheet) {
+        boolean isLandscape = sheet.isLandscape();
+        PageSize pageSize = isLandscape ? PageSize.A4.rotate() : PageSize.A4;
+        logger.debug("Sheet {} orientation: {}", sheet.getSheetName(), isLandscape ? "Landscape" : "Portrait");
+        return pageSize;
+    }
+
+    void createSheetTable(Document document, SheetModel model, CellStyleCache styleCache, FontRegistry.DocumentFonts fonts,
+                          RenderMode renderMode) {
+        SheetSource sheet = model.getSource();
+        PdfFont font = fonts.regular();
+        PdfFont fontBold = fonts.bold();
+        String sheetName = model.getSheetName();
+        boolean isCalendar = false;
+
+        BitSet nonEmptyColumns = model.getOccupiedColumns();
+        int headerRow = model.getHeaderRow();
+
+        if (model.getMaxPhysicalCells() >= 7) {
+            if (headerRow >= 0) {
+                int dayCount = 0;
+                for (int col = 0; col < 7; col++) {
+                    String cellValue = model.getValue(headerRow, col);
+                    if (DAY_PATTERN.matcher(cellValue).matches()) {
+                        dayCount++;
+                        nonEmptyColumns.set(col);
+                    }
+                }
+                if (dayCount >= 5) {
+                    isCalendar = true;
+                    nonEmptyColumns.clear();
+                    nonEmptyColumns.set(0, 7);
+                }
+            }
+        }
+
+        if (nonEmptyColumns.isEmpty()) {
+            logger.debug("Skipping empty sheet: {}", sheetName);
+            return;
+        }
+
+        int[] columnIndices = nonEmptyColumns.stream().toArray();
+
+        if (isCalendar) {
+            String monthYearHeader = sheetName;
+            String monthName = sheetName;
+            Matcher matcher = MONTH_PATTERN.matcher(sheetName);
+            if (matcher.find()) {
+                monthName = matcher.group();
+                switch (monthName.toLowerCase()) {
+                    case "jan": monthName = "January"; break;
+                    case "feb": monthName = "February"; break;
+                    case "mar": monthName = "March"; break;
+                    case "apr": monthName = "April"; break;
+                    case "may": monthName = "May"; break;
+                    case "jun": monthName = "June"; break;
+                    case "jul": monthName = "July"; break;
+                    case "aug": monthName = "August"; break;
+                    case "sep": monthName = "September"; break;
+                    case "oct": monthName = "October"; break;
+                    case "nov": monthName = "November"; break;
+                    case "dec": monthName = "December"; break;
+                }
+                monthYearHeader = monthName.toUpperCase() + " 2023";
+            }
+            document.add(new Paragraph(monthYearHeader)
+                    .setFont(fontBold)
+                    .setFontSize(16)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(10f));
+
+            float[] columnWidths = new float[MAX_COLUMNS];
+            float totalWidth = 0;
+            for (int i = 0; i < MAX_COLUMNS; i++) {
+                int col = columnIndices[i];
+                int excelWidth = sheet.getColumnWidth(col);
+                float pdfWidth = excelWidth / 256f * 7f;
+                columnWidths[i] = pdfWidth;
+                totalWidth += pdfWidth;
+            }
+
+            float maxTableWidth = document.getPdfDocument().getDefaultPageSize().getWidth() - 2 * MARGIN;
+            float[] normalizedWidths = new float[MAX_COLUMNS];
+            if (totalWidth > 0) {
+                float scale = maxTableWidth / totalWidth;
+                for (int i = 0; i < MAX_COLUMNS; i++) {
+                    normalizedWidths[i] = columnWidths[i] * scale;
+                }
+            } else {
+                for (int i = 0; i < MAX_COLUMNS; i++) {
+                    normalizedWidths[i] = maxTableWidth / MAX_COLUMNS;
+                }
+            }
+
+            // At most MAX_WEEKS rows, so the month is laid out as an ordinary table rather than in large-table mode.
+            Table table = new Table(normalizedWidths).useAllAvailableWidth();
+
+            for (int i = 0; i < MAX_COLUMNS; i++) {
+                table.addCell(new Cell()
+                        .add(new Paragraph(DAY_HEADERS[i])
+                                .setFont(fontBold)
+                                .setFontSize(10))
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setBackgroundColor(HEADER_BG_COLOR)
+                        .setBorder(CELL_BORDER)
+                        .setPadding(5f));
+            }
+
+            List<String> allCellValues = new ArrayList<>();
+            for (int row = 0; row < model.getRowCount(); row++) {
+                if (row != model.getHeaderRow()) {
+                    for (int i = 0; i < MAX_COLUMNS; i++) {
+                        int col = columnIndices[i];
+                        if (!model.isBlank(row, col)) {
+                            allCellValues.add(model.getValue(row, col));
+                        }
+                    }
+                }
+            }
+            int firstDayOfMonthIndex = -1;
+            for (int i = 0; i < allCellValues.size(); i++) {
+                String cellValue = allCellValues.get(i);
+                String[] parts = cellValue.split("\n");
+                String date = parts.length > 0 ? parts[0].trim() : "";
+                try {
+                    double serialDate = Double.parseDouble(date);
+                    if (serialDate > 40000 && serialDate < 50000) {
+                        int dayOffset = (int) (serialDate - 44926);
+                        if (dayOffset == 1) {
+                            firstDayOfMonthIndex = i % DAYS_IN_WEEK;
+                            break;
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+
+            String[][] calendarGrid = new String[MAX_WEEKS][DAYS_IN_WEEK];
+            int currentDay = 1;
+            for (String cellValue : allCellValues) {
+                String[] parts = cellValue.split("\n");
+                String date = parts.length > 0 ? parts[0].trim() : "";
+                String event = parts.length > 1 ? parts[1].trim() : "";
+                try {
+                    double serialDate = Double.parseDouble(date);
+                    if (serialDate > 40000 && serialDate < 50000) {
+                        int dayOffset = (int) (serialDate - 44926);
+                        if (dayOffset == currentDay) {
+                            int row = (firstDayOfMonthIndex + (dayOffset - 1)) / DAYS_IN_WEEK;
+                            int col = (firstDayOfMonthIndex + (dayOffset - 1)) % DAYS_IN_WEEK;
+                            if (row < MAX_WEEKS && col < DAYS_IN_WEEK) {
+                                calendarGrid[row][col] = dayOffset + (event.isEmpty() ? "" : " " + event);
+                            }
+                            currentDay++;
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+
+            for (int row = 0; row < MAX_WEEKS; row++) {
+                for (int col = 0; col < DAYS_IN_WEEK; col++) {
+                    String cellContent = calendarGrid[row][col];
+                    Cell cell = new Cell();
+                    if (cellContent != null && !cellContent.isEmpty()) {
+                        cell.add(new Paragraph(cellContent)
+                                        .setFont(font)
+                                        .setFontSize(10)
+                                        .setTextAlignment(TextAlignment.CENTER))
+                                .setTextAlignment(TextAlignment.CENTER)
+                                .setBackgroundColor(row % 2 == 0 ? ROW_EVEN_BG_COLOR : ROW_ODD_BG_COLOR)
+                                .setBorder(CELL_BORDER)
+                                .setPadding(5f);
+                    } else {
+                        cell.setBackgroundColor(row % 2 == 0 ? ROW_EVEN_BG_COLOR : ROW_ODD_BG_COLOR)
+                                .setBorder(Border.NO_BORDER)
+                                .setPadding(5f);
+                    }
+                    table.addCell(cell);
+                }
+            }
+
+            document.add(table.setMarginBottom(10f));
+            logger.debug("Added calendar table for sheet {}: {} columns", sheetName, MAX_COLUMNS);
+
+            for (String month : MONTHS_WITH_NOTES) {
+                if (monthName.equalsIgnoreCase(month)) {
+                    document.add(new Paragraph("Notes:")
+                            .setFont(font)
+                            .setFontSize(10)
+                            .setTextAlignment(TextAlignment.RIGHT)
+                            .setMarginTop(5f));
+                    logger.debug("Added 'Notes:' section for sheet {}", sheetName);
+                    break;
+                }
+            }
+        } else {
+            boolean fastGrid = renderMode == RenderMode.FAST_GRID
+                    || (renderMode == RenderMode.AUTO && model.getRowCount() >= fastGridRows);
+            FastGridRenderer gridRenderer = fastGrid ? new FastGridRenderer(document, styleCache, fonts, MARGIN) : null;
+            if (fastGrid) {
+                logger.debug("Drawing sheet {} ({} rows) with the fast grid renderer", sheetName, model.getRowCount());
+            }
+
+            // Split columns into groups for normal tables
+            List<int[]> columnGroups = new ArrayList<>();
+            for (int i = 0; i < columnIndices.length; i += MAX_COLUMNS_PER_TABLE) {
+                int end = Math.min(i + MAX_COLUMNS_PER_TABLE, columnIndices.length);
+                columnGroups.add(Arrays.copyOfRange(columnIndices, i, end));
+            }
+
+            for (int groupIndex = 0; groupIndex < columnGroups.size(); groupIndex++) {
+                int[] group = columnGroups.get(groupIndex);
+                int numCols = group.length;
+
+                float[] columnWidths = new float[numCols];
+                float totalWidth = 0;
+                for (int i = 0; i < numCols; i++) {
+                    int col = group[i];
+                    int excelWidth = sheet.getColumnWidth(col);
+                    float pdfWidth = excelWidth / 256f * 7f;
+                    columnWidths[i] = pdfWidth;
+                    totalWidth += pdfWidth;
+                }
+
+                float maxTableWidth = document.getPdfDocument().getDefaultPageSize().getWidth() - 2 * MARGIN;
+                float[] normalizedWidths = new float[numCols];
+                if (totalWidth > 0) {
+                    float scale = maxTableWidth / totalWidth;
+                    for (int i = 0; i < numCols; i++) {
+                        normalizedWidths[i] = columnWidths[i] * scale;
+                    }
+                } else {
+                    for (int i = 0; i < numCols; i++) {
+                        normalizedWidths[i] = maxTableWidth / numCols;
+                    }
+                }
+
+                if (gridRenderer != null) {
+                    gridRenderer.draw(model, group, normalizedWidths);
+                    logger.debug("Drew grid for sheet {}, group {}: {} columns", sheetName, groupIndex, numCols);
+                    continue;
+                }
+
+                Table table = new Table(normalizedWidths, true).useAllAvailableWidth();
+                document.add(table.setMarginBottom(20f));
+
+                if (headerRow >= 0) {
+                    for (int i = 0; i < numCols; i++) {
+                        int col = group[i];
+                        String cellValue = model.getValue(headerRow, col);
+                        ResolvedCellStyle style = styleCache.resolve(model.getStyle(headerRow, col), sheet);
+                        Cell cell = new Cell()
+                                .add(new Paragraph(cellValue)
+                                        .setFont(fonts.getBold(style))
+                                        .setFontSize(10))
+                                .setTextAlignment(style.getAlignment())
+                                .setBackgroundColor(style.getBackgroundColor() != null ? style.getBackgroundColor() : HEADER_BG_COLOR)
+                                .setBorder(CELL_BORDER)
+                                .setPadding(5f);
+                        table.addCell(cell);
+                    }
+                }
+
+                BitSet dataRows = model.dataRowsWithContent(group);
+                int dataRowIndex = 0;
+                for (int row = dataRows.nextSetBit(0); row >= 0; row = dataRows.nextSetBit(row + 1)) {
+                    for (int j = 0; j < numCols; j++) {
+                        int col = group[j];
+                        String cellValue = model.getValue(row, col);
+                        ResolvedCellStyle style = styleCache.resolve(model.getStyle(row, col), sheet);
+                        Color rowColor = dataRowIndex % 2 == 0 ? ROW_EVEN_BG_COLOR : ROW_ODD_BG_COLOR;
+                        Cell cell = new Cell()
+                                .add(new Paragraph(cellValue)
+                                        .setFont(fonts.get(style))
+                                        .setFontSize(10)
+                                        .setTextAlignment(TextAlignment.CENTER))
+                                .setTextAlignment(style.getAlignment())
+                                .setBackgroundColor(style.getBackgroundColor() != null ? style.getBackgroundColor() : rowColor)
+                                .setBorder(CELL_BORDER)
+                                .setPadding(5f);
+                        table.addCell(cell);
+                    }
+                    dataRowIndex++;
+                    if (dataRowIndex % tableFlushRows == 0) {
+                        table.flush();
+                    }
+                }
+                logger.debug("Skipped {} empty rows in sheet {}, group {}", model.getRowCount() - (headerRow >= 0 ? 1 : 0) - dataRows.cardinality(), sheetName, groupIndex);
+
+                table.complete();
+                logger.debug("Added table for sheet {}, group {}: {} columns", sheetName, groupIndex, numCols);
+            }
+        }
+    }
+
+    List<ImageData> extractImagesFromSheet(Sheet sheet, ImageCache imageCache) {
+        List<ImageData> images = new ArrayList<>();
+        // Legacy sheets opened on the DOM path carry an HSSFPatriarch; their pictures are not embedded, as
+        // on the streaming .xls path.
+        if (sheet.getDrawingPatriarch() instanceof XSSFDrawing drawing) {
+            for (XSSFShape shape : drawing.getShapes()) {
+                if (shape instanceof XSSFPicture) {
+                    XSSFPicture picture = (XSSFPicture) shape;
+                    XSSFPictureData pictureData = picture.getPictureData();
+                    if (pictureData != null) {
+                        ImageData image = imageCache.resolve(pictureData);
+                        if (image != null) {
+                            images.add(image);
+                            logger.debug("Found valid image in sheet {}: {}", sheet.getSheetName(), pictureData.getPackagePart().getPartName());
+                        }
+                    }
+                }
+            }
+        }
+        return images;
+    }
+}
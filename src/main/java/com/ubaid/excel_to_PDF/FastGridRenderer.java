@@ -0,0 +1,269 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.properties.AreaBreakType;
+import com.itextpdf.layout.properties.TextAlignment;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Draws a column group of a plain table straight onto {@link PdfCanvas}, bypassing iText's table layout.
+ * Rows have a fixed height, text that does not fit its column is truncated with an ellipsis, and the header
+ * row is repeated at the top of every page. The grid starts where the document's layout would have placed a
+ * table and, once drawn, moves the layout position below it, so content added to the document afterwards
+ * still flows after the grid.
+ */
+public class FastGridRenderer {
+
+    static final float FONT_SIZE = 10f;
+    static final float PADDING = 5f;
+    /** One line of 10pt text with the same padding as the layout path's cells. */
+    static final float ROW_HEIGHT = FONT_SIZE + 2 * PADDING + 2f;
+    private static final float BORDER_WIDTH = 1f;
+    private static final float GROUP_SPACING = 20f;
+    private static final float BASELINE_OFFSET = (ROW_HEIGHT - FONT_SIZE) / 2 + 2f;
+    private static final String ELLIPSIS = "...";
+
+    private final Document document;
+    private final PdfDocument pdf;
+    private final CellStyleCache styleCache;
+    private final FontRegistry.DocumentFonts fonts;
+    private final float margin;
+
+    private int pageNumber;
+    private int firstPageNumber;
+    private PdfCanvas canvas;
+    private float left;
+    private float top;
+    private float bottom;
+    private float y;
+    private PdfFont currentFont;
+    /** Latin-1 glyph widths per font, in thousandths of the font size; -1 until looked up. */
+    private final Map<PdfFont, int[]> widthTables = new IdentityHashMap<>();
+
+    public FastGridRenderer(Document document, CellStyleCache styleCache, FontRegistry.DocumentFonts fonts, float margin) {
+        this.document = document;
+        this.pdf = document.getPdfDocument();
+        this.styleCache = styleCache;
+        this.fonts = fonts;
+        this.margin = margin;
+    }
+
+    /**
+     * Draws the header row and every data row with content in {@code columns}, using the given column widths.
+     *
+     * @return number of data rows drawn
+     */
+    public int draw(SheetModel model, int[] columns, float[] widths) {
+        startAtLayoutPosition();
+        if (y - 2 * ROW_HEIGHT < bottom) {
+            nextPage();
+        }
+        int headerRow = model.getHeaderRow();
+        float[] offsets = new float[widths.length + 1];
+        for (int i = 0; i < widths.length; i++) {
+            offsets[i + 1] = offsets[i] + widths[i];
+        }
+
+        float pageTop = y;
+        if (headerRow >= 0) {
+            drawRow(model, headerRow, columns, widths, offsets, true, ExcelToPdfConverter.HEADER_BG_COLOR);
+        }
+        BitSet dataRows = model.dataRowsWithContent(columns);
+        int dataRowIndex = 0;
+        for (int row = dataRows.nextSetBit(0); row >= 0; row = dataRows.nextSetBit(row + 1)) {
+            if (y - ROW_HEIGHT < bottom) {
+                drawGridLines(offsets, pageTop);
+                nextPage();
+                pageTop = y;
+                if (headerRow >= 0) {
+                    drawRow(model, headerRow, columns, widths, offsets, true, ExcelToPdfConverter.HEADER_BG_COLOR);
+                }
+            }
+            Color rowColor = dataRowIndex % 2 == 0 ? ExcelToPdfConverter.ROW_EVEN_BG_COLOR : ExcelToPdfConverter.ROW_ODD_BG_COLOR;
+            drawRow(model, row, columns, widths, offsets, false, rowColor);
+            dataRowIndex++;
+        }
+        drawGridLines(offsets, pageTop);
+        canvas.release();
+        moveLayoutBelowGrid();
+        return dataRowIndex;
+    }
+
+    private void drawRow(SheetModel model, int row, int[] columns, float[] widths, float[] offsets, boolean header, Color rowColor) {
+        float rowBottom = y - ROW_HEIGHT;
+        float width = offsets[offsets.length - 1];
+        canvas.setFillColor(rowColor).rectangle(left, rowBottom, width, ROW_HEIGHT).fill();
+        ResolvedCellStyle[] styles = new ResolvedCellStyle[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            styles[i] = styleCache.resolve(model.getStyle(row, columns[i]), model.getSource());
+            Color background = styles[i].getBackgroundColor();
+            if (background != null && !background.equals(rowColor)) {
+                canvas.setFillColor(background).rectangle(left + offsets[i], rowBottom, widths[i], ROW_HEIGHT).fill();
+            }
+        }
+
+        canvas.setFillColor(ColorConstants.BLACK).beginText();
+        currentFont = null;
+        for (int i = 0; i < columns.length; i++) {
+            String value = model.getValue(row, columns[i]);
+            if (value.isEmpty()) continue;
+            ResolvedCellStyle style = styles[i];
+            PdfFont font = header ? fonts.getBold(style) : fonts.get(style);
+            if (font != currentFont) {
+                canvas.setFontAndSize(font, FONT_SIZE);
+                currentFont = font;
+            }
+            float available = widths[i] - 2 * PADDING;
+            String text = printable(value);
+            float textWidth = width(font, text);
+            if (textWidth > available) {
+                text = truncate(font, text, available);
+                textWidth = width(font, text);
+            }
+            // Data cells are centred like the layout path's paragraphs; header cells follow the cell alignment.
+            TextAlignment alignment = header ? style.getAlignment() : TextAlignment.CENTER;
+            float x = left + offsets[i] + PADDING;
+            if (alignment == TextAlignment.CENTER) {
+                x += Math.max(0, (available - textWidth) / 2);
+            } else if (alignment == TextAlignment.RIGHT) {
+                x += Math.max(0, available - textWidth);
+            }
+            canvas.setTextMatrix(x, rowBottom + BASELINE_OFFSET).showText(text);
+        }
+        canvas.endText();
+        y = rowBottom;
+    }
+
+    /** Outer border and cell borders for the rows drawn on the current page, stroked as a single path. */
+    private void drawGridLines(float[] offsets, float pageTop) {
+        if (y >= pageTop) return;
+        float width = offsets[offsets.length - 1];
+        canvas.setLineWidth(BORDER_WIDTH).setStrokeColor(ColorConstants.BLACK);
+        for (float line = pageTop; line >= y - 0.01f; line -= ROW_HEIGHT) {
+            canvas.moveTo(left, line).lineTo(left + width, line);
+        }
+        for (float offset : offsets) {
+            canvas.moveTo(left + offset, pageTop).lineTo(left + offset, y);
+        }
+        canvas.stroke();
+    }
+
+    /** Starts on the page and at the height where the document's layout would place its next element. */
+    private void startAtLayoutPosition() {
+        LayoutArea area = document.getRenderer() != null ? document.getRenderer().getCurrentArea() : null;
+        if (area != null) {
+            pageNumber = area.getPageNumber();
+            Rectangle box = area.getBBox();
+            openPage(box.getLeft(), box.getTop(), box.getBottom());
+        } else {
+            pageNumber = Math.max(1, pdf.getNumberOfPages());
+            if (pdf.getNumberOfPages() == 0) {
+                pdf.addNewPage(pdf.getDefaultPageSize());
+            }
+            Rectangle size = pdf.getPage(pageNumber).getPageSize();
+            openPage(size.getLeft() + margin, size.getTop() - margin, size.getBottom() + margin);
+        }
+        firstPageNumber = pageNumber;
+    }
+
+    private void nextPage() {
+        canvas.release();
+        // Pages strictly between the first and the current one belong to the grid alone; the first may still
+        // receive layout content, so it is left for the document to flush.
+        if (pageNumber > firstPageNumber) {
+            pdf.getPage(pageNumber).flush();
+        }
+        pageNumber++;
+        PdfPage page = pageNumber <= pdf.getNumberOfPages() ? pdf.getPage(pageNumber) : pdf.addNewPage(pdf.getDefaultPageSize());
+        Rectangle size = page.getPageSize();
+        openPage(size.getLeft() + margin, size.getTop() - margin, size.getBottom() + margin);
+    }
+
+    private void openPage(float left, float top, float bottom) {
+        this.canvas = new PdfCanvas(pdf.getPage(pageNumber));
+        this.left = left;
+        this.top = top;
+        this.bottom = bottom;
+        this.y = top;
+    }
+
+    /**
+     * Moves the document's layout to just below the grid: to the top of the last page, then past the height
+     * the grid used there. When the grid ended on an earlier page, layout continues on a fresh page after it.
+     */
+    private void moveLayoutBelowGrid() {
+        if (pageNumber == firstPageNumber && document.getRenderer().getCurrentArea() != null) {
+            document.add(new Div().setHeight(top - y + GROUP_SPACING).setMargin(0).setPadding(0));
+            return;
+        }
+        document.add(new AreaBreak(AreaBreakType.LAST_PAGE));
+        if (pageNumber == pdf.getNumberOfPages()) {
+            document.add(new Div().setHeight(Math.min(top - y + GROUP_SPACING, top - bottom)).setMargin(0).setPadding(0));
+        }
+    }
+
+    private static String printable(String value) {
+        return value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0 || value.indexOf('\t') >= 0
+                ? value.replace('\n', ' ').replace('\r', ' ').replace('\t', ' ')
+                : value;
+    }
+
+    /**
+     * Same result as {@link PdfFont#getWidth(String, float)} at {@link #FONT_SIZE}, but looks Latin-1 glyph
+     * widths up in an array instead of the font's boxed glyph map, which dominated the cost of large grids.
+     */
+    private float width(PdfFont font, String text) {
+        int[] table = widthTables.computeIfAbsent(font, key -> {
+            int[] widths = new int[256];
+            Arrays.fill(widths, -1);
+            return widths;
+        });
+        long total = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (codePoint < table.length) {
+                if (table[codePoint] < 0) {
+                    table[codePoint] = font.getWidth(codePoint);
+                }
+                total += table[codePoint];
+            } else {
+                total += font.getWidth(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return total * FONT_SIZE / 1000f;
+    }
+
+    /**
+     * The longest prefix of {@code text} that fits {@code available} points together with an ellipsis. The
+     * prefix is measured in code points, so a surrogate pair is never split.
+     */
+    String truncate(PdfFont font, String text, float available) {
+        float ellipsis = width(font, ELLIPSIS);
+        int low = 0;
+        int high = text.codePointCount(0, text.length());
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (width(font, text.substring(0, text.offsetByCodePoints(0, mid))) + ellipsis <= available) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low == 0 ? "" : text.substring(0, text.offsetByCodePoints(0, low)) + ELLIPSIS;
+    }
+}
@@ -0,0 +1,173 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Application-wide cache of parsed font programs. Programs are loaded once, either from the optional
+ * fonts directory (embedded TrueType/OpenType, e.g. for non-Latin content) or from the standard 14 fonts,
+ * and every PDF document creates its own lightweight {@link PdfFont}s from them through {@link #forDocument()}.
+ * Excel font names resolve to a registered family of the same name first, then to the closest standard family.
+ */
+@Component
+public class FontRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(FontRegistry.class);
+
+    /** Standard fonts indexed by [family][bold + 2 * italic]. */
+    private static final String[][] STANDARD_FONTS = {
+            {StandardFonts.HELVETICA, StandardFonts.HELVETICA_BOLD, StandardFonts.HELVETICA_OBLIQUE, StandardFonts.HELVETICA_BOLDOBLIQUE},
+            {StandardFonts.TIMES_ROMAN, StandardFonts.TIMES_BOLD, StandardFonts.TIMES_ITALIC, StandardFonts.TIMES_BOLDITALIC},
+            {StandardFonts.COURIER, StandardFonts.COURIER_BOLD, StandardFonts.COURIER_OBLIQUE, StandardFonts.COURIER_BOLDOBLIQUE}
+    };
+    private static final int SANS = 0;
+    private static final int SERIF = 1;
+    private static final int MONOSPACE = 2;
+
+    private final Map<String, FontProgram> embedded = new ConcurrentHashMap<>();
+    private final Map<String, FontProgram> programs = new ConcurrentHashMap<>();
+
+    public FontRegistry(@Value("${excel-to-pdf.fonts.directory:}") String fontDirectory) {
+        if (fontDirectory != null && !fontDirectory.isBlank()) {
+            registerDirectory(Path.of(fontDirectory));
+        }
+    }
+
+    /** Fresh per-document font set; {@link PdfFont}s belong to one document and must not be shared. */
+    public DocumentFonts forDocument() {
+        return new DocumentFonts();
+    }
+
+    /**
+     * Cached program for an Excel font: a registered family with the same name, preferring the matching
+     * bold/italic face, or else the standard family closest to the name.
+     */
+    public FontProgram getProgram(String name, boolean bold, boolean italic) {
+        String family = name != null ? name.trim().toLowerCase(Locale.ROOT) : "";
+        FontProgram program = embedded.get(key(family, bold, italic));
+        if (program == null && (bold || italic)) {
+            program = embedded.get(key(family, false, false));
+        }
+        if (program != null) {
+            return program;
+        }
+        String standard = STANDARD_FONTS[standardFamily(family)][(bold ? 1 : 0) + (italic ? 2 : 0)];
+        return programs.computeIfAbsent(standard, FontRegistry::loadStandard);
+    }
+
+    /** Whether a registered font, embedded into documents that use it, serves this family. */
+    public boolean isEmbedded(String name) {
+        return name != null && embedded.containsKey(key(name.trim().toLowerCase(Locale.ROOT), false, false));
+    }
+
+    /** Registered families and faces, for the converter's options fingerprint. */
+    public String getFingerprint() {
+        return String.join(",", new TreeSet<>(embedded.keySet()));
+    }
+
+    private void registerDirectory(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).matches(".*\\.(ttf|otf)"))
+                    .sorted()
+                    .forEach(this::register);
+        } catch (java.io.IOException e) {
+            throw new IllegalArgumentException("Cannot read fonts directory " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void register(Path file) {
+        try {
+            FontProgram program = FontProgramFactory.createFont(file.toString());
+            String[][] familyNames = program.getFontNames().getFamilyName();
+            if (familyNames == null || familyNames.length == 0) {
+                logger.warn("Skipping font {} without a family name", file);
+                return;
+            }
+            String family = familyNames[0][3].trim().toLowerCase(Locale.ROOT);
+            boolean bold = program.getFontNames().isBold();
+            boolean italic = program.getFontNames().isItalic();
+            embedded.putIfAbsent(key(family, bold, italic), program);
+            // A family registered only in a styled face still serves requests for its regular face.
+            embedded.putIfAbsent(key(family, false, false), program);
+            logger.info("Registered font {} (family '{}', bold={}, italic={})", file.getFileName(), family, bold, italic);
+        } catch (java.io.IOException | com.itextpdf.io.exceptions.IOException e) {
+            logger.warn("Skipping unreadable font {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static int standardFamily(String family) {
+        if (family.contains("courier") || family.contains("mono") || family.equals("consolas") || family.equals("lucida console")) {
+            return MONOSPACE;
+        }
+        if (family.contains("times") || family.equals("cambria") || family.equals("georgia") || family.equals("garamond")
+                || family.equals("book antiqua") || (family.contains("serif") && !family.contains("sans"))) {
+            return SERIF;
+        }
+        return SANS;
+    }
+
+    private static FontProgram loadStandard(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Error creating font: " + e.getMessage(), e);
+        }
+    }
+
+    private static String key(String family, boolean bold, boolean italic) {
+        return family + (bold ? "|b" : "|") + (italic ? "i" : "");
+    }
+
+    /** The fonts of one PDF document, created from the registry's cached programs on first use. */
+    public class DocumentFonts {
+
+        private final Map<FontProgram, PdfFont> fonts = new IdentityHashMap<>();
+        private final Map<ResolvedCellStyle, PdfFont> styleFonts = new IdentityHashMap<>();
+        private final Map<ResolvedCellStyle, PdfFont> headerFonts = new IdentityHashMap<>();
+
+        private DocumentFonts() {
+        }
+
+        public PdfFont get(String name, boolean bold, boolean italic) {
+            FontProgram program = getProgram(name, bold, italic);
+            return fonts.computeIfAbsent(program, key -> isEmbedded(name)
+                    ? PdfFontFactory.createFont(key, PdfEncodings.IDENTITY_H, PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED)
+                    : PdfFontFactory.createFont(key));
+        }
+
+        /** Font for a resolved cell style; resolved styles are shared per workbook, so this is a single lookup per cell. */
+        public PdfFont get(ResolvedCellStyle style) {
+            return styleFonts.computeIfAbsent(style, key -> get(key.getFontName(), key.isBold(), key.isItalic()));
+        }
+
+        /** Bold face of the cell style's family, used for header cells. */
+        public PdfFont getBold(ResolvedCellStyle style) {
+            return headerFonts.computeIfAbsent(style, key -> get(key.getFontName(), true, key.isItalic()));
+        }
+
+        public PdfFont regular() {
+            return get(null, false, false);
+        }
+
+        public PdfFont bold() {
+            return get(null, true, false);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ubaid.excel_to_PDF;
+
+/**
+ * How formula cells get the values that are rendered.
+ */
+public enum FormulaMode {
+    /** The result Excel stored with each formula when the file was last saved; costs nothing to read. */
+    CACHED,
+    /**
+     * One evaluation pass over the rendered sheets and ranges before rendering, within a time budget. Needs the
+     * whole workbook in memory, so the DOM reader is used.
+     */
+    RECALCULATE
+}
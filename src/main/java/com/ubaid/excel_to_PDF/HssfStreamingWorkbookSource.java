@@ -0,0 +1,443 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.ArrayRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.ColumnInfoRecord;
+import org.apache.poi.hssf.record.DefaultColWidthRecord;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NameRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.PrintSetupRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SharedFormulaRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workbook source for legacy .xls (BIFF8) files built on the HSSF event model. Only the workbook globals
+ * (shared strings, formats, fonts, cell styles and sheet names) are kept in memory; each
+ * {@link SheetSource#readRows} call seeks to the sheet's BOF record and streams its cell records through a
+ * {@link MissingRecordAwareHSSFListener}, so only the current row is ever materialised.
+ */
+public class HssfStreamingWorkbookSource implements WorkbookSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(HssfStreamingWorkbookSource.class);
+
+    private final POIFSFileSystem fileSystem;
+    private final String workbookEntry;
+    /** Workbook built from the globals records alone; resolves styles, fonts and defined names. */
+    private final HSSFWorkbook globals;
+    private final InternalWorkbook internal;
+    private final FormulaRenderingWorkbook formulaNames;
+    private final boolean date1904;
+    private final CellStyle[] cellStyles;
+    private final List<SheetSource> sheets = new ArrayList<>();
+
+    public HssfStreamingWorkbookSource(POIFSFileSystem fileSystem) throws IOException {
+        this(fileSystem, SheetSelection.ALL);
+    }
+
+    /** Exposes only the selected sheets; the records of the others are never read. */
+    public HssfStreamingWorkbookSource(POIFSFileSystem fileSystem, SheetSelection selection) throws IOException {
+        this.fileSystem = fileSystem;
+        try {
+            this.workbookEntry = HSSFWorkbook.getWorkbookDirEntryName(fileSystem.getRoot());
+            List<Record> records = new ArrayList<>();
+            List<BoundSheetRecord> boundSheets = new ArrayList<>();
+            process(0, record -> {
+                if (record instanceof FilePassRecord) {
+                    throw new IllegalArgumentException("Encrypted .xls workbooks are not supported");
+                }
+                if (record instanceof BoundSheetRecord) {
+                    boundSheets.add((BoundSheetRecord) record);
+                }
+                records.add(record);
+                if (record.getSid() == EOFRecord.sid) {
+                    throw new StopReadingException();
+                }
+            });
+            this.internal = InternalWorkbook.createWorkbook(records);
+            this.globals = HSSFWorkbook.create(internal);
+            this.formulaNames = new GlobalsFormulaNames(HSSFEvaluationWorkbook.create(globals));
+            this.date1904 = internal.isUsing1904DateWindowing();
+            this.cellStyles = new CellStyle[internal.getNumExFormats()];
+            List<String> names = new ArrayList<>();
+            for (BoundSheetRecord boundSheet : boundSheets) {
+                names.add(boundSheet.getSheetname());
+            }
+            for (int i : selection.select(names)) {
+                String printArea = selection.isPrintAreaOnly() ? printArea(i) : null;
+                sheets.add(new HssfSheetSource(names.get(i), boundSheets.get(i).getPositionOfBof(), selection.rangeFor(names.get(i), printArea)));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            fileSystem.close();
+            throw e;
+        } catch (RuntimeException e) {
+            fileSystem.close();
+            throw new IllegalArgumentException("Uploaded file is not a valid .xls workbook: " + e.getMessage(), e);
+        }
+        logger.debug("Opened streaming .xls workbook with {} sheets", sheets.size());
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileSystem.close();
+    }
+
+    /** Streams records from {@code offset} in the workbook stream until the listener throws {@link StopReadingException}. */
+    private void process(int offset, HSSFListener listener) throws IOException {
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        try (DocumentInputStream in = fileSystem.getRoot().createDocumentInputStream(workbookEntry)) {
+            IOUtils.skipFully(in, offset);
+            new HSSFEventFactory().processEvents(request, in);
+        } catch (StopReadingException e) {
+            return;
+        }
+    }
+
+    private String printArea(int sheetIndex) {
+        NameRecord name = internal.getSpecificBuiltinRecord(NameRecord.BUILTIN_PRINT_AREA, sheetIndex + 1);
+        try {
+            return name != null ? FormulaRenderer.toFormulaString(formulaNames, name.getNameDefinition()) : null;
+        } catch (RuntimeException e) {
+            logger.debug("Ignoring unreadable print area of sheet {}: {}", sheetIndex, e.getMessage());
+            return null;
+        }
+    }
+
+    private CellStyle getCellStyle(int xfIndex) {
+        if (xfIndex < 0 || xfIndex >= cellStyles.length) return null;
+        CellStyle style = cellStyles[xfIndex];
+        if (style == null) {
+            style = globals.getCellStyleAt(xfIndex);
+            cellStyles[xfIndex] = style;
+        }
+        return style;
+    }
+
+    private class HssfSheetSource implements SheetSource {
+
+        private final String sheetName;
+        private final int bofOffset;
+        private final CellRangeAddress range;
+        private Map<Integer, Integer> columnWidths;
+        private int defaultColumnWidth;
+        private boolean landscape;
+
+        HssfSheetSource(String sheetName, int bofOffset, CellRangeAddress range) {
+            this.sheetName = sheetName;
+            this.bofOffset = bofOffset;
+            this.range = range;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        @Override
+        public void readRows(RowHandler handler) {
+            read(new SheetListener(handler, false));
+        }
+
+        @Override
+        public CellRangeAddress getRange() {
+            return range;
+        }
+
+        @Override
+        public int getColumnWidth(int col) {
+            ensureMetadata();
+            Integer width = columnWidths.get(col);
+            return width != null ? width : defaultColumnWidth * 256;
+        }
+
+        @Override
+        public boolean isLandscape() {
+            ensureMetadata();
+            return landscape;
+        }
+
+        @Override
+        public Font getFont(CellStyle style) {
+            return globals.getFontAt(style.getFontIndexAsInt());
+        }
+
+        @Override
+        public Sheet getSheet() {
+            return null;
+        }
+
+        private void ensureMetadata() {
+            if (columnWidths == null) {
+                // Page setup and column records precede the cell table, so this pass stops at the sheet dimensions.
+                read(new SheetListener(row -> true, true));
+            }
+        }
+
+        private void read(SheetListener listener) {
+            try {
+                process(bofOffset, new MissingRecordAwareHSSFListener(listener));
+            } catch (IOException | RuntimeException e) {
+                throw new RuntimeException("Failed to read sheet " + sheetName + ": " + e.getMessage(), e);
+            }
+        }
+
+        private class SheetListener implements HSSFListener {
+
+            private final RowHandler rowHandler;
+            private final boolean metadataOnly;
+            private final Map<Integer, Integer> widths = new HashMap<>();
+            private final BitSet declaredRows = new BitSet();
+            private final List<String> values = new ArrayList<>();
+            private final List<CellStyle> styles = new ArrayList<>();
+            private int defaultWidth = 8;
+            private boolean landscapeOrientation;
+            private int depth;
+            private int physicalCells;
+            private int formulaCells;
+            /** Formula with a string result, which is stored in the string record that follows it in the stream. */
+            private FormulaRecord pendingFormula;
+
+            SheetListener(RowHandler rowHandler, boolean metadataOnly) {
+                this.rowHandler = rowHandler;
+                this.metadataOnly = metadataOnly;
+            }
+
+            @Override
+            public void processRecord(Record record) {
+                if (pendingFormula != null) {
+                    if (record instanceof SharedFormulaRecord || record instanceof ArrayRecord) {
+                        // Shared-formula and array records may sit between a formula and its string record.
+                        return;
+                    }
+                    FormulaRecord formula = pendingFormula;
+                    pendingFormula = null;
+                    String text = record instanceof StringRecord ? ((StringRecord) record).getString() : null;
+                    setCell(formula, text != null ? text.trim() : "");
+                    if (record instanceof StringRecord) {
+                        return;
+                    }
+                }
+                if (record instanceof LastCellOfRowDummyRecord) {
+                    endRow(((LastCellOfRowDummyRecord) record).getRow());
+                    return;
+                }
+                switch (record.getSid()) {
+                    case BOFRecord.sid:
+                        depth++;
+                        break;
+                    case EOFRecord.sid:
+                        if (--depth == 0) {
+                            finish();
+                            throw new StopReadingException();
+                        }
+                        break;
+                    case PrintSetupRecord.sid:
+                        // The record's flag is set for portrait pages, as HSSFPrintSetup also interprets it.
+                        landscapeOrientation = !((PrintSetupRecord) record).getLandscape();
+                        break;
+                    case DefaultColWidthRecord.sid:
+                        defaultWidth = ((DefaultColWidthRecord) record).getColWidth();
+                        break;
+                    case ColumnInfoRecord.sid:
+                        ColumnInfoRecord columnInfo = (ColumnInfoRecord) record;
+                        for (int col = columnInfo.getFirstColumn(); col <= columnInfo.getLastColumn() && col < 256; col++) {
+                            widths.put(col, columnInfo.getColumnWidth());
+                        }
+                        break;
+                    case DimensionsRecord.sid:
+                        if (metadataOnly) {
+                            finish();
+                            throw new StopReadingException();
+                        }
+                        break;
+                    case RowRecord.sid:
+                        declaredRows.set(((RowRecord) record).getRowNumber());
+                        break;
+                    default:
+                        if (depth == 1 && record instanceof CellValueRecordInterface) {
+                            cell(record);
+                        }
+                        break;
+                }
+            }
+
+            private void cell(Record record) {
+                CellValueRecordInterface cell = (CellValueRecordInterface) record;
+                if (range != null) {
+                    if (cell.getRow() > range.getLastRow()) {
+                        // Cell records are stored in row order, so nothing after this one is in range.
+                        finish();
+                        throw new StopReadingException();
+                    }
+                    if (!range.isInRange(cell.getRow(), cell.getColumn())) {
+                        return;
+                    }
+                }
+                String value;
+                if (record instanceof LabelSSTRecord) {
+                    String text = internal.getSSTString(((LabelSSTRecord) record).getSSTIndex()).getString();
+                    value = text != null ? text.trim() : "";
+                } else if (record instanceof LabelRecord) {
+                    String text = ((LabelRecord) record).getValue();
+                    value = text != null ? text.trim() : "";
+                } else if (record instanceof NumberRecord) {
+                    NumberRecord number = (NumberRecord) record;
+                    value = CellValues.formatNumeric(number.getValue(), getCellStyle(number.getXFIndex()), date1904);
+                } else if (record instanceof BoolErrRecord) {
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    value = boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "";
+                } else if (record instanceof FormulaRecord) {
+                    FormulaRecord formula = (FormulaRecord) record;
+                    if (formula.hasCachedResultString()) {
+                        pendingFormula = formula;
+                        return;
+                    }
+                    value = cachedResult(formula);
+                } else if (record instanceof BlankRecord) {
+                    value = "";
+                } else {
+                    return;
+                }
+                setCell((CellValueRecordInterface) record, value);
+            }
+
+            private void setCell(CellValueRecordInterface cell, String value) {
+                int column = cell.getColumn();
+                while (values.size() <= column) {
+                    values.add(null);
+                    styles.add(null);
+                }
+                values.set(column, value);
+                styles.set(column, getCellStyle(cell.getXFIndex()));
+                physicalCells++;
+                if (cell instanceof FormulaRecord) {
+                    formulaCells++;
+                }
+            }
+
+            /** The numeric, boolean or error result Excel stored with the formula, as the DOM reader renders it. */
+            private String cachedResult(FormulaRecord formula) {
+                switch (formula.getCachedResultTypeEnum()) {
+                    case NUMERIC:
+                        return CellValues.formatNumeric(formula.getValue(), getCellStyle(formula.getXFIndex()), date1904);
+                    case BOOLEAN:
+                        return String.valueOf(formula.getCachedBooleanValue());
+                    default:
+                        return "";
+                }
+            }
+
+            private void endRow(int rowIndex) {
+                boolean inRange = range == null || (rowIndex >= range.getFirstRow() && rowIndex <= range.getLastRow());
+                if (physicalCells > 0 || (declaredRows.get(rowIndex) && inRange)) {
+                    SheetRow row = new SheetRow(rowIndex, values.toArray(new String[0]), styles.toArray(new CellStyle[0]), physicalCells, formulaCells);
+                    if (!rowHandler.handleRow(row)) {
+                        throw new StopReadingException();
+                    }
+                }
+                values.clear();
+                styles.clear();
+                physicalCells = 0;
+                formulaCells = 0;
+            }
+
+            private void finish() {
+                defaultColumnWidth = defaultWidth;
+                landscape = landscapeOrientation;
+                columnWidths = widths;
+            }
+        }
+    }
+
+    /**
+     * Resolves sheet references in print area names from the extern sheet and bound sheet records. The globals
+     * workbook has no sheet objects, so {@link HSSFEvaluationWorkbook} cannot name same-workbook sheets itself.
+     */
+    private class GlobalsFormulaNames implements FormulaRenderingWorkbook {
+
+        private final HSSFEvaluationWorkbook names;
+
+        GlobalsFormulaNames(HSSFEvaluationWorkbook names) {
+            this.names = names;
+        }
+
+        @Override
+        public EvaluationWorkbook.ExternalSheet getExternalSheet(int externSheetIndex) {
+            // Null for sheets of this workbook, which the renderer then names through the two methods below.
+            return internal.getExternalSheet(externSheetIndex);
+        }
+
+        @Override
+        public String getSheetFirstNameByExternSheet(int externSheetIndex) {
+            return internal.findSheetFirstNameFromExternSheet(externSheetIndex);
+        }
+
+        @Override
+        public String getSheetLastNameByExternSheet(int externSheetIndex) {
+            return internal.findSheetLastNameFromExternSheet(externSheetIndex);
+        }
+
+        @Override
+        public String resolveNameXText(NameXPtg ptg) {
+            return names.resolveNameXText(ptg);
+        }
+
+        @Override
+        public String getNameText(NamePtg ptg) {
+            return names.getNameText(ptg);
+        }
+    }
+
+    private static class StopReadingException extends RuntimeException {
+
+        StopReadingException() {
+            super(null, null, false, false);
+        }
+    }
+}
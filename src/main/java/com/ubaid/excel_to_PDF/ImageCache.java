@@ -0,0 +1,151 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import org.apache.poi.xssf.usermodel.XSSFPictureData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Decodes each picture of one workbook once, however many sheets or anchors place it. Pictures are keyed by
+ * package part name, so repeated anchors skip reading the part, and then by content, so identical images
+ * stored in separate parts share one decoded copy. {@link #xObject} then maps each decoded image to a single
+ * image XObject per PDF document, which every placement references.
+ */
+public class ImageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageCache.class);
+
+    private final int maxPixels;
+    private final Map<String, Entry> byPart = new HashMap<>();
+    private final Map<ByteBuffer, Entry> byContent = new HashMap<>();
+    private long bytesSaved;
+
+    /**
+     * @param maxPixels longest side, in pixels, above which images are downscaled before embedding; 0 keeps
+     *                  every image at its original resolution
+     */
+    public ImageCache(int maxPixels) {
+        this.maxPixels = maxPixels;
+    }
+
+    /** Decoded image for the picture, or null when it is not a supported PNG, JPEG, GIF or BMP image. */
+    public ImageData resolve(XSSFPictureData picture) {
+        String partName = picture.getPackagePart().getPartName().getName();
+        Entry entry = byPart.get(partName);
+        if (entry == null) {
+            byte[] data = picture.getData();
+            ByteBuffer key = ByteBuffer.wrap(data);
+            entry = byContent.get(key);
+            if (entry == null) {
+                entry = decode(data, partName);
+                byContent.put(key, entry);
+            } else {
+                logger.debug("Picture {} duplicates an image already embedded", partName);
+            }
+            byPart.put(partName, entry);
+        }
+        if (entry.uses++ > 0) {
+            bytesSaved += entry.embeddedBytes;
+        }
+        return entry.image;
+    }
+
+    /** Image bytes not written to the PDF thanks to deduplication and downscaling. */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /** Returns the document's XObject for the image, creating it on first use. */
+    public static PdfImageXObject xObject(Map<ImageData, PdfImageXObject> xObjects, ImageData image) {
+        return xObjects.computeIfAbsent(image, PdfImageXObject::new);
+    }
+
+    /** Per-document XObject map for {@link #xObject}; XObjects belong to one document and are not shared. */
+    public static Map<ImageData, PdfImageXObject> newXObjectMap() {
+        return new IdentityHashMap<>();
+    }
+
+    private Entry decode(byte[] data, String partName) {
+        if (detectImageFormat(data) == null) {
+            logger.warn("Skipping invalid or unsupported image {}", partName);
+            return new Entry(null, 0);
+        }
+        byte[] embedded = maxPixels > 0 ? downscale(data, partName) : data;
+        bytesSaved += data.length - embedded.length;
+        try {
+            return new Entry(ImageDataFactory.create(embedded), embedded.length);
+        } catch (com.itextpdf.io.exceptions.IOException e) {
+            logger.warn("Skipping invalid image {}: {}", partName, e.getMessage());
+            return new Entry(null, 0);
+        }
+    }
+
+    /**
+     * Scales the image so that its longest side is at most {@code maxPixels}, keeping PNG for images with
+     * transparency or lossless sources and JPEG for JPEG sources. Returns the original bytes when the image
+     * is already small enough, cannot be decoded, or would not get smaller.
+     */
+    private byte[] downscale(byte[] data, String partName) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(data));
+            if (source == null || Math.max(source.getWidth(), source.getHeight()) <= maxPixels) {
+                return data;
+            }
+            double scale = (double) maxPixels / Math.max(source.getWidth(), source.getHeight());
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            boolean jpeg = "JPEG".equals(detectImageFormat(data));
+            BufferedImage scaled = new BufferedImage(width, height,
+                    jpeg || !source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+            graphics.dispose();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(scaled, jpeg ? "jpeg" : "png", out);
+            if (out.size() >= data.length) {
+                return data;
+            }
+            logger.debug("Downscaled image {} from {}x{} to {}x{}", partName, source.getWidth(), source.getHeight(), width, height);
+            return out.toByteArray();
+        } catch (java.io.IOException | RuntimeException e) {
+            logger.warn("Could not downscale image {}: {}", partName, e.getMessage());
+            return data;
+        }
+    }
+
+    static String detectImageFormat(byte[] imageData) {
+        if (imageData == null || imageData.length < 4) return null;
+        if (imageData[0] == (byte) 0x89 && imageData[1] == (byte) 0x50 && imageData[2] == (byte) 0x4E && imageData[3] == (byte) 0x47) return "PNG";
+        if (imageData[0] == (byte) 0xFF && imageData[1] == (byte) 0xD8) return "JPEG";
+        if (imageData[0] == (byte) 0x47 && imageData[1] == (byte) 0x49 && imageData[2] == (byte) 0x46 && imageData[3] == (byte) 0x38) return "GIF";
+        if (imageData[0] == (byte) 0x42 && imageData[1] == (byte) 0x4D) return "BMP";
+        return null;
+    }
+
+    private static class Entry {
+
+        private final ImageData image;
+        private final long embeddedBytes;
+        private int uses;
+
+        Entry(ImageData image, long embeddedBytes) {
+            this.image = image;
+            this.embeddedBytes = embeddedBytes;
+        }
+    }
+}
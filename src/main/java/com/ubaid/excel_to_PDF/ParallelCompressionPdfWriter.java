@@ -0,0 +1,131 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.events.Event;
+import com.itextpdf.kernel.events.IEventHandler;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+/**
+ * PDF writer that deflates the content streams of finished pages on a worker pool. When a page is flushed
+ * its content streams are handed to the pool instead of being compressed and written on the layout thread,
+ * which carries on with the next page; each stream is written once its compressed bytes are ready. A PDF
+ * body may hold objects in any order, since the cross-reference table records where each one starts, and
+ * everything still pending is written before the document writes its cross-reference table.
+ * <p>
+ * Register the writer for {@link PdfDocumentEvent#END_PAGE} on its document so it knows which streams are
+ * page content.
+ */
+public class ParallelCompressionPdfWriter extends PdfWriter implements IEventHandler {
+
+    /** Smaller streams are compressed inline; handing them to the pool costs more than it saves. */
+    private static final int MIN_PARALLEL_BYTES = 8 * 1024;
+
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final Set<PdfStream> pageContent = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Deque<PendingStream> pending = new ArrayDeque<>();
+
+    /**
+     * @param executor   pool the streams are compressed on
+     * @param maxPending compressed streams that may be awaiting their turn before the layout thread waits
+     */
+    public ParallelCompressionPdfWriter(OutputStream out, WriterProperties properties, ExecutorService executor, int maxPending) {
+        super(out, properties);
+        this.executor = executor;
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        PdfPage page = ((PdfDocumentEvent) event).getPage();
+        for (int i = 0; i < page.getContentStreamCount(); i++) {
+            PdfStream stream = page.getContentStream(i);
+            if (stream.getIndirectReference() != null && !stream.isFlushed() && !stream.containsKey(PdfName.Filter)) {
+                pageContent.add(stream);
+            }
+        }
+    }
+
+    @Override
+    protected void flushObject(PdfObject object, boolean canBeInObjStm) {
+        if (object instanceof PdfStream stream && pageContent.remove(stream)) {
+            byte[] bytes = stream.getBytes(false);
+            if (bytes.length >= MIN_PARALLEL_BYTES) {
+                int level = getCompressionLevel();
+                pending.add(new PendingStream(stream, executor.submit(() -> deflate(bytes, level))));
+                writeCompleted(pending.size() > maxPending);
+                return;
+            }
+        }
+        super.flushObject(object, canBeInObjStm);
+    }
+
+    @Override
+    protected void flushWaitingObjects(Set<PdfIndirectReference> forbiddenToFlush) {
+        // The document frees every reference that has not been written once this returns.
+        while (!pending.isEmpty()) {
+            writeCompleted(true);
+        }
+        super.flushWaitingObjects(forbiddenToFlush);
+    }
+
+    /** Writes the streams at the head of the queue whose compression has finished, in page order. */
+    private void writeCompleted(boolean waitForFirst) {
+        while (!pending.isEmpty() && (waitForFirst || pending.peek().compressed().isDone())) {
+            PendingStream next = pending.poll();
+            PdfStream stream = next.stream();
+            stream.setData(await(next.compressed()));
+            stream.put(PdfName.Filter, PdfName.FlateDecode);
+            super.flushObject(stream, false);
+            waitForFirst = false;
+        }
+    }
+
+    private static byte[] await(Future<byte[]> compressed) {
+        try {
+            return compressed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while compressing page content", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to compress page content: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+            byte[] buffer = new byte[16 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private record PendingStream(PdfStream stream, Future<byte[]> compressed) {
+    }
+}
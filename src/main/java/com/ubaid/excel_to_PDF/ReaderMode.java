@@ -0,0 +1,8 @@
+package com.ubaid.excel_to_PDF;
+
+public enum ReaderMode {
+    /** Stream the workbook unless it contains drawings, which need the DOM reader. */
+    AUTO,
+    STREAMING,
+    DOM
+}
@@ -0,0 +1,13 @@
+package com.ubaid.excel_to_PDF;
+
+/**
+ * How plain (non-calendar) sheet tables are rendered.
+ */
+public enum RenderMode {
+    /** iText table layout: cells wrap and grow to fit their text. */
+    LAYOUT,
+    /** Direct canvas drawing with fixed row heights and truncated text; much cheaper for large dumps. */
+    FAST_GRID,
+    /** Fast grid for sheets with at least the configured number of rows, layout otherwise. */
+    AUTO
+}
@@ -0,0 +1,48 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.layout.properties.TextAlignment;
+
+/**
+ * The parts of a POI cell style that the PDF renderer applies, resolved once per style index.
+ */
+public final class ResolvedCellStyle {
+
+    static final ResolvedCellStyle DEFAULT = new ResolvedCellStyle(null, false, false, null, TextAlignment.LEFT);
+
+    private final String fontName;
+    private final boolean bold;
+    private final boolean italic;
+    private final Color backgroundColor;
+    private final TextAlignment alignment;
+
+    ResolvedCellStyle(String fontName, boolean bold, boolean italic, Color backgroundColor, TextAlignment alignment) {
+        this.fontName = fontName;
+        this.bold = bold;
+        this.italic = italic;
+        this.backgroundColor = backgroundColor;
+        this.alignment = alignment;
+    }
+
+    /** Excel font name, resolved to a PDF font by {@link FontRegistry}; {@code null} for the default face. */
+    public String getFontName() {
+        return fontName;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+
+    public boolean isItalic() {
+        return italic;
+    }
+
+    /** Fill colour of the Excel cell, or {@code null} to keep the renderer's own background. */
+    public Color getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public TextAlignment getAlignment() {
+        return alignment;
+    }
+}
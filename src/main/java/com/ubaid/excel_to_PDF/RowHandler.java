@@ -0,0 +1,12 @@
+package com.ubaid.excel_to_PDF;
+
+@FunctionalInterface
+public interface RowHandler {
+
+    /**
+     * Receives the next non-null row of a sheet in ascending row order.
+     *
+     * @return {@code false} to stop reading the rest of the sheet
+     */
+    boolean handleRow(SheetRow row);
+}
@@ -0,0 +1,200 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Column-oriented snapshot of a sheet, built in a single pass over its rows. Holds the display
+ * text and style of every cell plus per-column occupancy bitmaps, so that every column group of
+ * {@code createSheetTable} renders from memory instead of re-reading the sheet.
+ */
+public class SheetModel {
+
+    private static final int INITIAL_ROWS = 64;
+    private static final CellStyle[] NO_STYLES = new CellStyle[0];
+
+    private final SheetSource source;
+    private final CellTextInterner interner;
+    private int rowCount;
+    private int[] rowIndexes = new int[INITIAL_ROWS];
+    private Column[] columns = new Column[0];
+    private final BitSet occupiedColumns = new BitSet();
+    private CellStyle[] styles = NO_STYLES;
+    private int maxPhysicalCells = 1;
+    private long cellCount;
+    private long formulaCellCount;
+    private int headerRow = -1;
+    private final int headerRowIndex;
+
+    private SheetModel(SheetSource source, CellTextInterner interner) {
+        this.source = source;
+        this.interner = interner;
+        this.headerRowIndex = headerRowIndex(source);
+    }
+
+    /** Sheet row used as the header: the first row of the selected range, or row 0. */
+    static int headerRowIndex(SheetSource source) {
+        return source.getRange() != null ? source.getRange().getFirstRow() : 0;
+    }
+
+    public static SheetModel read(SheetSource source) {
+        return read(source, new CellTextInterner());
+    }
+
+    /** Reads the sheet, sharing repeated display strings with the other sheets read through {@code interner}. */
+    public static SheetModel read(SheetSource source, CellTextInterner interner) {
+        SheetModel model = new SheetModel(source, interner);
+        source.readRows(row -> {
+            model.addRow(row);
+            return true;
+        });
+        return model;
+    }
+
+    public SheetSource getSource() {
+        return source;
+    }
+
+    public String getSheetName() {
+        return source.getSheetName();
+    }
+
+    /** Number of rows held by the model; row positions run from 0 to {@code getRowCount() - 1}. */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** Zero-based sheet row index of the row at the given position. */
+    public int getRowIndex(int row) {
+        return rowIndexes[row];
+    }
+
+    /** Position of the header row (sheet row 0, or the first row of the selected range), or -1 when the sheet has no such row. */
+    public int getHeaderRow() {
+        return headerRow;
+    }
+
+    public int getMaxPhysicalCells() {
+        return maxPhysicalCells;
+    }
+
+    /** Number of non-blank cells in the sheet. */
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    /** Number of formula cells read, each rendered with its cached or recalculated result. */
+    public long getFormulaCellCount() {
+        return formulaCellCount;
+    }
+
+    /** Columns with at least one non-blank cell. */
+    public BitSet getOccupiedColumns() {
+        return (BitSet) occupiedColumns.clone();
+    }
+
+    public String getValue(int row, int col) {
+        if (row < 0 || col >= columns.length || columns[col] == null) return "";
+        String value = columns[col].values[row];
+        return value != null ? value : "";
+    }
+
+    public CellStyle getStyle(int row, int col) {
+        if (row < 0 || col >= columns.length || columns[col] == null) return null;
+        int styleId = columns[col].styleIds[row];
+        return styleId >= 0 ? styles[styleId] : null;
+    }
+
+    public boolean isBlank(int row, int col) {
+        return col >= columns.length || columns[col] == null || !columns[col].nonBlank.get(row);
+    }
+
+    /** Positions of the rows below the header that have a non-blank cell in at least one of the given columns. */
+    public BitSet dataRowsWithContent(int[] cols) {
+        BitSet rows = new BitSet(rowCount);
+        for (int col : cols) {
+            if (col < columns.length && columns[col] != null) {
+                rows.or(columns[col].nonBlank);
+            }
+        }
+        if (headerRow >= 0) {
+            rows.clear(headerRow);
+        }
+        return rows;
+    }
+
+    private void addRow(SheetRow row) {
+        int position = rowCount++;
+        if (position == rowIndexes.length) {
+            rowIndexes = Arrays.copyOf(rowIndexes, position * 2);
+        }
+        rowIndexes[position] = row.getRowIndex();
+        if (row.getRowIndex() == headerRowIndex) {
+            headerRow = position;
+        }
+        maxPhysicalCells = Math.max(maxPhysicalCells, row.getPhysicalNumberOfCells());
+        formulaCellCount += row.getFormulaCells();
+
+        int lastCellNum = row.getLastCellNum();
+        if (lastCellNum > columns.length) {
+            columns = Arrays.copyOf(columns, lastCellNum);
+        }
+        for (int col = 0; col < lastCellNum; col++) {
+            String value = row.getValue(col);
+            CellStyle style = row.getStyle(col);
+            boolean blank = CellValues.isBlank(value);
+            if (blank && style == null) {
+                continue;
+            }
+            Column column = columns[col];
+            if (column == null) {
+                column = new Column(rowIndexes.length);
+                columns[col] = column;
+            }
+            column.ensureCapacity(rowIndexes.length);
+            column.values[position] = blank ? value : interner.intern(value);
+            column.styleIds[position] = styleId(style);
+            if (!blank) {
+                cellCount++;
+                column.nonBlank.set(position);
+                occupiedColumns.set(col);
+            }
+        }
+    }
+
+    private int styleId(CellStyle style) {
+        if (style == null) return -1;
+        int index = style.getIndex();
+        if (index >= styles.length) {
+            styles = Arrays.copyOf(styles, Math.max(index + 1, styles.length * 2));
+        }
+        if (styles[index] == null) {
+            styles[index] = style;
+        }
+        return index;
+    }
+
+    private static class Column {
+
+        private String[] values;
+        private int[] styleIds;
+        private final BitSet nonBlank = new BitSet();
+
+        Column(int capacity) {
+            values = new String[capacity];
+            styleIds = new int[capacity];
+            Arrays.fill(styleIds, -1);
+        }
+
+        void ensureCapacity(int capacity) {
+            if (values.length < capacity) {
+                int oldLength = values.length;
+                values = Arrays.copyOf(values, capacity);
+                styleIds = Arrays.copyOf(styleIds, capacity);
+                Arrays.fill(styleIds, oldLength, capacity, -1);
+            }
+        }
+    }
+}
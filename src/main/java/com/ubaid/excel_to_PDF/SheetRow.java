@@ -0,0 +1,51 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+
+public class SheetRow {
+
+    private final int rowIndex;
+    private final String[] values;
+    private final CellStyle[] styles;
+    private final int physicalNumberOfCells;
+    private final int formulaCells;
+
+    public SheetRow(int rowIndex, String[] values, CellStyle[] styles, int physicalNumberOfCells) {
+        this(rowIndex, values, styles, physicalNumberOfCells, 0);
+    }
+
+    public SheetRow(int rowIndex, String[] values, CellStyle[] styles, int physicalNumberOfCells, int formulaCells) {
+        this.rowIndex = rowIndex;
+        this.values = values;
+        this.styles = styles;
+        this.physicalNumberOfCells = physicalNumberOfCells;
+        this.formulaCells = formulaCells;
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    public int getLastCellNum() {
+        return values.length;
+    }
+
+    public int getPhysicalNumberOfCells() {
+        return physicalNumberOfCells;
+    }
+
+    /** Cells of the row holding a formula, whose values are the formulas' results. */
+    public int getFormulaCells() {
+        return formulaCells;
+    }
+
+    public String getValue(int col) {
+        if (col < 0 || col >= values.length || values[col] == null) return "";
+        return values[col];
+    }
+
+    public CellStyle getStyle(int col) {
+        if (col < 0 || col >= styles.length) return null;
+        return styles[col];
+    }
+}
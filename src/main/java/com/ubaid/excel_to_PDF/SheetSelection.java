@@ -0,0 +1,167 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The part of a workbook a conversion renders: a subset of sheets, given by name or 1-based index, an
+ * A1-style range, and whether sheets with a print area render only that area. Workbook sources apply it
+ * while opening and reading, so unselected sheets are never parsed and rows outside a range are skipped by
+ * the reader. An explicit range takes precedence over a sheet's print area.
+ */
+public class SheetSelection {
+
+    public static final SheetSelection ALL = new SheetSelection(List.of(), null, null, false);
+
+    private final List<String> sheets;
+    /** Sheet the range is qualified with, e.g. {@code Sales} for {@code Sales!A1:F20}, or null for every sheet. */
+    private final String rangeSheet;
+    private final CellRangeAddress range;
+    private final boolean printAreaOnly;
+
+    private SheetSelection(List<String> sheets, String rangeSheet, CellRangeAddress range, boolean printAreaOnly) {
+        this.sheets = sheets;
+        this.rangeSheet = rangeSheet;
+        this.range = range;
+        this.printAreaOnly = printAreaOnly;
+    }
+
+    /**
+     * @param sheets    sheet names or 1-based indexes; null or empty selects every sheet, or only the range's
+     *                  sheet when the range is qualified with one
+     * @param range     A1-style range such as {@code A1:F20}, {@code B:D} or {@code 'Q1 Sales'!A1:F20}, or null
+     * @param printArea whether sheets with a print area render only their print area
+     * @throws IllegalArgumentException when the range cannot be parsed
+     */
+    public static SheetSelection of(List<String> sheets, String range, boolean printArea) {
+        List<String> selected = new ArrayList<>();
+        if (sheets != null) {
+            for (String sheet : sheets) {
+                if (sheet != null && !sheet.isBlank()) {
+                    selected.add(sheet.trim());
+                }
+            }
+        }
+        String rangeSheet = null;
+        CellRangeAddress area = null;
+        if (range != null && !range.isBlank()) {
+            area = parseArea(range.trim());
+            rangeSheet = areas(range.trim())[0].getFirstCell().getSheetName();
+            if (rangeSheet != null && !selected.isEmpty() && !selected.contains(rangeSheet)) {
+                selected.add(rangeSheet);
+            }
+        }
+        if (selected.isEmpty() && area == null && !printArea) {
+            return ALL;
+        }
+        return new SheetSelection(List.copyOf(selected), rangeSheet, area, printArea);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean isPrintAreaOnly() {
+        return printAreaOnly;
+    }
+
+    /**
+     * Positions of the selected sheets in {@code sheetNames}, in workbook order. A value matching a sheet name
+     * selects that sheet; otherwise a number selects the sheet at that 1-based position.
+     *
+     * @throws IllegalArgumentException when a value names no sheet of the workbook
+     */
+    public List<Integer> select(List<String> sheetNames) {
+        TreeSet<Integer> positions = new TreeSet<>();
+        List<String> wanted = sheets.isEmpty() && rangeSheet != null ? List.of(rangeSheet) : sheets;
+        if (wanted.isEmpty()) {
+            for (int i = 0; i < sheetNames.size(); i++) {
+                positions.add(i);
+            }
+            return new ArrayList<>(positions);
+        }
+        for (String sheet : wanted) {
+            int position = indexOfIgnoreCase(sheetNames, sheet);
+            if (position < 0 && sheet.matches("\\d{1,4}")) {
+                position = Integer.parseInt(sheet) - 1;
+            }
+            if (position < 0 || position >= sheetNames.size()) {
+                throw new IllegalArgumentException("Workbook has no sheet '" + sheet + "'");
+            }
+            positions.add(position);
+        }
+        return new ArrayList<>(positions);
+    }
+
+    /**
+     * Cells to render of a selected sheet, or null for the whole sheet.
+     *
+     * @param printArea the sheet's print area reference as stored in the workbook, or null when it has none
+     */
+    public CellRangeAddress rangeFor(String sheetName, String printArea) {
+        if (range != null && (rangeSheet == null || rangeSheet.equalsIgnoreCase(sheetName))) {
+            return range;
+        }
+        if (printAreaOnly && printArea != null && !printArea.isBlank()) {
+            try {
+                return parseArea(printArea);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** Stable description of the selection for cache keys. */
+    public String getFingerprint() {
+        if (isAll()) {
+            return "";
+        }
+        return ";sheets=" + String.join("|", sheets)
+                + ";range=" + (rangeSheet != null ? rangeSheet + "!" : "") + (range != null ? range.formatAsString() : "")
+                + ";printArea=" + printAreaOnly;
+    }
+
+    /**
+     * Parses an area reference, ignoring any sheet name. Print areas made of several areas, such as
+     * {@code Sales!$A$1:$B$5,Sales!$D$1:$E$5}, are read as the range that bounds all of them.
+     */
+    static CellRangeAddress parseArea(String reference) {
+        int firstRow = Integer.MAX_VALUE;
+        int firstColumn = Integer.MAX_VALUE;
+        int lastRow = 0;
+        int lastColumn = 0;
+        for (AreaReference area : areas(reference)) {
+            CellReference first = area.getFirstCell();
+            CellReference last = area.getLastCell();
+            firstRow = Math.min(firstRow, Math.min(first.getRow(), last.getRow()));
+            lastRow = Math.max(lastRow, Math.max(first.getRow(), last.getRow()));
+            firstColumn = Math.min(firstColumn, Math.min(first.getCol(), last.getCol()));
+            lastColumn = Math.max(lastColumn, Math.max(first.getCol(), last.getCol()));
+        }
+        return new CellRangeAddress(firstRow, lastRow, firstColumn, lastColumn);
+    }
+
+    private static AreaReference[] areas(String reference) {
+        try {
+            return AreaReference.generateContiguous(SpreadsheetVersion.EXCEL2007, reference);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid range '" + reference + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static int indexOfIgnoreCase(List<String> names, String name) {
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * Forward-only view of a worksheet. Each call to {@link #readRows} starts again from the first row; rows and
+ * cells outside {@link #getRange()} are skipped by the reader.
+ */
+public interface SheetSource {
+
+    String getSheetName();
+
+    void readRows(RowHandler handler);
+
+    /** Cells the conversion's {@link SheetSelection} limits this sheet to, or {@code null} for the whole sheet. */
+    CellRangeAddress getRange();
+
+    /** Column width in units of 1/256th of a character, as returned by {@link Sheet#getColumnWidth(int)}. */
+    int getColumnWidth(int col);
+
+    boolean isLandscape();
+
+    Font getFont(CellStyle style);
+
+    /** The random-access sheet backing this source, or {@code null} when the sheet is streamed. */
+    Sheet getSheet();
+}
@@ -0,0 +1,473 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workbook source built on the XSSF event model. Sheet XML is parsed with SAX on every
+ * {@link SheetSource#readRows} call, so only the current row is ever materialised. Shared strings tables
+ * above a size threshold are kept in a {@link DiskSharedStringsTable} instead of on the heap.
+ */
+public class StreamingWorkbookSource implements WorkbookSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingWorkbookSource.class);
+    private static final int DEFAULT_BASE_COLUMN_WIDTH = 8;
+
+    private final OPCPackage pkg;
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final CellStyle[] cellStyles;
+    private final List<SheetSource> sheets = new ArrayList<>();
+
+    public StreamingWorkbookSource(OPCPackage pkg) throws IOException {
+        this(pkg, SheetSelection.ALL);
+    }
+
+    /** Exposes only the selected sheets; the parts of the others are never parsed. */
+    public StreamingWorkbookSource(OPCPackage pkg, SheetSelection selection) throws IOException {
+        this(pkg, selection, -1, 0);
+    }
+
+    /**
+     * @param sharedStringsDiskThreshold uncompressed size of sharedStrings.xml from which the strings are kept
+     *                                   in a temporary file rather than on the heap; negative keeps them on the heap
+     * @param sharedStringsCacheEntries  strings of a disk-backed table cached on the heap
+     */
+    public StreamingWorkbookSource(OPCPackage pkg, SheetSelection selection, long sharedStringsDiskThreshold,
+                                   int sharedStringsCacheEntries) throws IOException {
+        this.pkg = pkg;
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            this.sharedStrings = openSharedStrings(pkg, sharedStringsDiskThreshold, sharedStringsCacheEntries);
+            this.styles = reader.getStylesTable();
+            this.cellStyles = new CellStyle[styles != null ? styles.getNumCellStyles() : 0];
+            Map<Integer, String> printAreas = new HashMap<>();
+            try (InputStream workbookData = reader.getWorkbookData()) {
+                this.date1904 = readWorkbookProperties(workbookData, printAreas);
+            }
+            List<String> names = new ArrayList<>();
+            List<PackagePart> parts = new ArrayList<>();
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iterator.hasNext()) {
+                // Opening a part's stream does not inflate it; only readRows does.
+                iterator.next().close();
+                names.add(iterator.getSheetName());
+                parts.add(iterator.getSheetPart());
+            }
+            for (int i : selection.select(names)) {
+                sheets.add(new StreamingSheetSource(names.get(i), parts.get(i), selection.rangeFor(names.get(i), printAreas.get(i))));
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Failed to open workbook for streaming: " + e.getMessage(), e);
+        }
+        logger.debug("Opened streaming workbook with {} sheets", sheets.size());
+    }
+
+    /** Whether a selected sheet has a drawing, found from the sheet parts' relationships without parsing any sheet. */
+    static boolean hasDrawings(OPCPackage pkg, SheetSelection selection) throws IOException {
+        try {
+            List<String> names = new ArrayList<>();
+            List<PackagePart> parts = new ArrayList<>();
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (iterator.hasNext()) {
+                iterator.next().close();
+                names.add(iterator.getSheetName());
+                parts.add(iterator.getSheetPart());
+            }
+            for (int i : selection.select(names)) {
+                if (!parts.get(i).getRelationshipsByType(XSSFRelation.DRAWINGS.getRelation()).isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (OpenXML4JException e) {
+            throw new IOException("Failed to open workbook for streaming: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sharedStrings instanceof DiskSharedStringsTable disk) {
+                disk.close();
+            }
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    private static SharedStrings openSharedStrings(OPCPackage pkg, long diskThreshold, int cacheEntries)
+            throws IOException, SAXException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (diskThreshold < 0 || parts.isEmpty() || parts.get(0).getSize() < diskThreshold) {
+            return new ReadOnlySharedStringsTable(pkg, false);
+        }
+        try (InputStream in = parts.get(0).getInputStream()) {
+            DiskSharedStringsTable table = new DiskSharedStringsTable(in, cacheEntries);
+            logger.debug("Moved {} shared strings ({} bytes of XML) to disk", table.getUniqueCount(), parts.get(0).getSize());
+            return table;
+        }
+    }
+
+    private String sharedString(int index) {
+        return sharedStrings instanceof DiskSharedStringsTable disk
+                ? disk.getString(index)
+                : sharedStrings.getItemAt(index).getString();
+    }
+
+    private CellStyle getCellStyle(int styleIndex) {
+        if (styleIndex < 0 || styleIndex >= cellStyles.length) return null;
+        CellStyle style = cellStyles[styleIndex];
+        if (style == null) {
+            style = styles.getStyleAt(styleIndex);
+            cellStyles[styleIndex] = style;
+        }
+        return style;
+    }
+
+    /** Reads the 1904 date flag, which it returns, and the print areas by sheet position from workbook.xml. */
+    private static boolean readWorkbookProperties(InputStream workbookData, Map<Integer, String> printAreas) throws IOException, SAXException {
+        boolean[] date1904 = {false};
+        parse(workbookData, new DefaultHandler() {
+            private final StringBuilder printArea = new StringBuilder();
+            private Integer printAreaSheet;
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if ("workbookPr".equals(localName)) {
+                    String value = attributes.getValue("date1904");
+                    date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                } else if ("definedName".equals(localName) && "_xlnm.Print_Area".equals(attributes.getValue("name"))
+                        && attributes.getValue("localSheetId") != null) {
+                    printAreaSheet = Integer.valueOf(attributes.getValue("localSheetId"));
+                    printArea.setLength(0);
+                }
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                if (printAreaSheet != null) {
+                    printArea.append(ch, start, length);
+                }
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) {
+                if ("definedName".equals(localName) && printAreaSheet != null) {
+                    printAreas.put(printAreaSheet, printArea.toString());
+                    printAreaSheet = null;
+                }
+            }
+        });
+        return date1904[0];
+    }
+
+    static void parse(InputStream in, DefaultHandler handler) throws IOException, SAXException {
+        try {
+            XMLReader xmlReader = XMLHelper.newXMLReader();
+            xmlReader.setContentHandler(handler);
+            xmlReader.parse(new InputSource(in));
+        } catch (ParserConfigurationException e) {
+            throw new SAXException("SAX parser appears to be broken: " + e.getMessage(), e);
+        }
+    }
+
+    private class StreamingSheetSource implements SheetSource {
+
+        private final String sheetName;
+        private final PackagePart part;
+        private final CellRangeAddress range;
+        private Map<Integer, Integer> columnWidths;
+        private int baseColumnWidth;
+        private boolean landscape;
+
+        StreamingSheetSource(String sheetName, PackagePart part, CellRangeAddress range) {
+            this.sheetName = sheetName;
+            this.part = part;
+            this.range = range;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        @Override
+        public void readRows(RowHandler handler) {
+            read(new SheetHandler(handler, false));
+        }
+
+        private void read(SheetHandler sheetHandler) {
+            try (InputStream in = part.getInputStream()) {
+                parse(in, sheetHandler);
+            } catch (StopReadingException e) {
+                return;
+            } catch (IOException | SAXException e) {
+                throw new RuntimeException("Failed to read sheet " + sheetName + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public CellRangeAddress getRange() {
+            return range;
+        }
+
+        @Override
+        public int getColumnWidth(int col) {
+            ensureMetadata();
+            Integer width = columnWidths.get(col);
+            return width != null ? width : baseColumnWidth * 256;
+        }
+
+        @Override
+        public boolean isLandscape() {
+            ensureMetadata();
+            return landscape;
+        }
+
+        @Override
+        public Font getFont(CellStyle style) {
+            return styles != null ? styles.getFontAt(style.getFontIndexAsInt()) : null;
+        }
+
+        @Override
+        public Sheet getSheet() {
+            return null;
+        }
+
+        private void ensureMetadata() {
+            if (columnWidths == null) {
+                // Column and page setup elements surround the sheet data, so the whole part is parsed, but no cell is read.
+                read(new SheetHandler(row -> true, true));
+            }
+        }
+
+        private class SheetHandler extends DefaultHandler {
+
+            private final RowHandler rowHandler;
+            private final boolean metadataOnly;
+            private final Map<Integer, Integer> widths = new HashMap<>();
+            private int baseWidth = DEFAULT_BASE_COLUMN_WIDTH;
+            private boolean landscapeOrientation;
+            private final StringBuilder text = new StringBuilder();
+            private final StringBuilder formula = new StringBuilder();
+            private final List<String> values = new ArrayList<>();
+            private final List<CellStyle> cellStyles = new ArrayList<>();
+            private int rowIndex = -1;
+            private int physicalCells;
+            private int formulaCells;
+            private int nextColumn;
+            private int column;
+            private String cellType;
+            private CellStyle cellStyle;
+            private boolean inValue;
+            private boolean inFormula;
+            private boolean hasFormula;
+            private boolean hasValue;
+            private boolean inInlineString;
+            private boolean skipRow;
+            private boolean skipCell;
+
+            SheetHandler(RowHandler rowHandler, boolean metadataOnly) {
+                this.rowHandler = rowHandler;
+                this.metadataOnly = metadataOnly;
+            }
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                switch (localName) {
+                    case "row":
+                        String r = attributes.getValue("r");
+                        rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                        if (range != null && rowIndex > range.getLastRow() && !metadataOnly) {
+                            throw new StopReadingException();
+                        }
+                        skipRow = metadataOnly || (range != null && rowIndex < range.getFirstRow());
+                        values.clear();
+                        cellStyles.clear();
+                        physicalCells = 0;
+                        formulaCells = 0;
+                        nextColumn = 0;
+                        break;
+                    case "c":
+                        String ref = attributes.getValue("r");
+                        column = ref != null ? new CellReference(ref).getCol() : nextColumn;
+                        nextColumn = column + 1;
+                        skipCell = skipRow || (range != null && (column < range.getFirstColumn() || column > range.getLastColumn()));
+                        if (skipCell) {
+                            break;
+                        }
+                        cellType = attributes.getValue("t");
+                        String s = attributes.getValue("s");
+                        int styleIndex = s != null ? Integer.parseInt(s) : 0;
+                        cellStyle = getCellStyle(styleIndex);
+                        text.setLength(0);
+                        formula.setLength(0);
+                        hasFormula = false;
+                        hasValue = false;
+                        break;
+                    case "v":
+                        inValue = true;
+                        hasValue = true;
+                        break;
+                    case "f":
+                        inFormula = true;
+                        hasFormula = true;
+                        break;
+                    case "is":
+                        inInlineString = true;
+                        break;
+                    case "col":
+                        int min = Integer.parseInt(attributes.getValue("min"));
+                        int max = Integer.parseInt(attributes.getValue("max"));
+                        String width = attributes.getValue("width");
+                        if (width != null) {
+                            int poiWidth = (int) (Double.parseDouble(width) * 256);
+                            for (int col = min - 1; col < max && col < 16384; col++) {
+                                widths.put(col, poiWidth);
+                            }
+                        }
+                        break;
+                    case "sheetFormatPr":
+                        String base = attributes.getValue("baseColWidth");
+                        if (base != null) {
+                            baseWidth = Integer.parseInt(base);
+                        }
+                        break;
+                    case "pageSetup":
+                        landscapeOrientation = "landscape".equals(attributes.getValue("orientation"));
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                if (skipCell) {
+                    return;
+                }
+                if (inValue || (inInlineString && !inFormula)) {
+                    text.append(ch, start, length);
+                } else if (inFormula) {
+                    formula.append(ch, start, length);
+                }
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) throws SAXException {
+                switch (localName) {
+                    case "v":
+                        inValue = false;
+                        break;
+                    case "f":
+                        inFormula = false;
+                        break;
+                    case "is":
+                        inInlineString = false;
+                        break;
+                    case "c":
+                        if (skipCell) {
+                            break;
+                        }
+                        while (values.size() <= column) {
+                            values.add(null);
+                            cellStyles.add(null);
+                        }
+                        values.set(column, cellValue());
+                        cellStyles.set(column, cellStyle);
+                        physicalCells++;
+                        if (hasFormula) {
+                            formulaCells++;
+                        }
+                        break;
+                    case "row":
+                        if (skipRow) {
+                            skipCell = false;
+                            break;
+                        }
+                        SheetRow row = new SheetRow(rowIndex, values.toArray(new String[0]),
+                                cellStyles.toArray(new CellStyle[0]), physicalCells, formulaCells);
+                        if (!rowHandler.handleRow(row)) {
+                            throw new StopReadingException();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            @Override
+            public void endDocument() {
+                baseColumnWidth = baseWidth;
+                landscape = landscapeOrientation;
+                columnWidths = widths;
+            }
+
+            private String cellValue() {
+                if (hasFormula && !hasValue) {
+                    // Files written by tools that do not calculate carry no cached result; show the formula instead.
+                    return formula.toString();
+                }
+                String raw = text.toString();
+                if (cellType == null || "n".equals(cellType)) {
+                    if (raw.isEmpty()) return "";
+                    try {
+                        return CellValues.formatNumeric(Double.parseDouble(raw), cellStyle, date1904);
+                    } catch (NumberFormatException e) {
+                        return "";
+                    }
+                }
+                switch (cellType) {
+                    case "s":
+                        if (raw.isEmpty()) return "";
+                        String shared = sharedString(Integer.parseInt(raw));
+                        return shared != null ? shared.trim() : "";
+                    case "inlineStr":
+                    case "str":
+                        return raw.trim();
+                    case "b":
+                        return String.valueOf("1".equals(raw));
+                    default:
+                        return "";
+                }
+            }
+        }
+    }
+
+    private static class StopReadingException extends SAXException {
+    }
+}
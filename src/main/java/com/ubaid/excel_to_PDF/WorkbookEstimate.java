@@ -0,0 +1,181 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+
+/**
+ * Heap estimate for converting a workbook, computed from the uncompressed sizes recorded in the zip central
+ * directory before any part is inflated. The factors are multiples of the XML size measured for retained
+ * heap after reading a sheet (XSSF object model: 16-21x; streaming column model: 1-1.3x), rounded up.
+ * Legacy .xls files are not zipped; their estimate is a multiple of the file size.
+ */
+public class WorkbookEstimate {
+
+    /** Heap per byte of worksheet XML when the whole workbook is loaded into the XSSF object model. */
+    static final int DOM_SHEET_FACTOR = 20;
+    /** Heap per byte of sharedStrings.xml held as XMLBeans rich-text objects by the DOM reader. */
+    static final int DOM_SHARED_STRINGS_FACTOR = 15;
+    /** Heap per byte of worksheet XML for the column model of one sheet on the streaming path. */
+    static final int STREAMING_SHEET_FACTOR = 2;
+    /** Heap per byte of sharedStrings.xml held as plain strings by the streaming reader. */
+    static final int STREAMING_SHARED_STRINGS_FACTOR = 3;
+    /**
+     * Bytes of sharedStrings.xml per heap byte once the streaming reader keeps the strings on disk: only an
+     * 8-byte offset per item stays on the heap, and an item takes at least 17 bytes of XML.
+     */
+    static final int DISK_SHARED_STRINGS_DIVISOR = 2;
+    /**
+     * Heap per byte of a legacy .xls file on the HSSF event path: the file system, the workbook globals with
+     * the shared strings and the column model of one sheet (measured 4.4-5.2x).
+     */
+    static final int LEGACY_FACTOR = 6;
+    /** Fonts, styles, iText layout and writer buffers. */
+    static final long BASE_BYTES = 16L << 20;
+
+    /** Entries that inflate more than this many times their compressed size are treated as zip bombs. */
+    static final long MAX_COMPRESSION_RATIO = 100;
+    /** Entries smaller than this are exempt from the ratio check; tiny XML parts legitimately compress very well. */
+    static final long RATIO_CHECK_MIN_BYTES = 1L << 20;
+
+    private long worksheetBytes;
+    private long largestWorksheetBytes;
+    private long sharedStringsBytes;
+    private long mediaBytes;
+    private long otherBytes;
+    private boolean drawings;
+    private long legacyBytes;
+    private long sharedStringsDiskThreshold = -1;
+
+    private WorkbookEstimate() {
+    }
+
+    public static WorkbookEstimate of(byte[] content, long maxUncompressedBytes) {
+        if (content.length >= 8 && FileMagic.valueOf(content) == FileMagic.OLE2) {
+            return ofLegacy(content.length, maxUncompressedBytes);
+        }
+        try (ZipFile zip = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(content)).get()) {
+            return of(zip, maxUncompressedBytes);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Uploaded file is not a valid .xlsx workbook: " + e.getMessage(), e);
+        }
+    }
+
+    public static WorkbookEstimate of(File file, long maxUncompressedBytes) {
+        try {
+            if (FileMagic.valueOf(file) == FileMagic.OLE2) {
+                return ofLegacy(file.length(), maxUncompressedBytes);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Uploaded file cannot be read: " + e.getMessage(), e);
+        }
+        try (ZipFile zip = ZipFile.builder().setFile(file).get()) {
+            return of(zip, maxUncompressedBytes);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Uploaded file is not a valid .xlsx workbook: " + e.getMessage(), e);
+        }
+    }
+
+    private static WorkbookEstimate of(ZipFile zip, long maxUncompressedBytes) {
+        WorkbookEstimate estimate = new WorkbookEstimate();
+        Enumeration<ZipArchiveEntry> entries = zip.getEntries();
+        while (entries.hasMoreElements()) {
+            ZipArchiveEntry entry = entries.nextElement();
+            long size = entry.getSize();
+            long compressed = entry.getCompressedSize();
+            if (size < 0 || compressed < 0) {
+                throw new WorkbookTooLargeException("Workbook entry " + entry.getName() + " does not declare its size");
+            }
+            if (size >= RATIO_CHECK_MIN_BYTES && size > compressed * MAX_COMPRESSION_RATIO) {
+                throw new WorkbookTooLargeException("Workbook entry " + entry.getName() + " inflates " + size / Math.max(1, compressed)
+                        + " times its compressed size");
+            }
+            estimate.add(entry.getName(), size);
+            if (estimate.getUncompressedBytes() > maxUncompressedBytes) {
+                throw new WorkbookTooLargeException("Workbook inflates to more than " + (maxUncompressedBytes >> 20) + " MB");
+            }
+        }
+        return estimate;
+    }
+
+    private static WorkbookEstimate ofLegacy(long size, long maxUncompressedBytes) {
+        if (size > maxUncompressedBytes) {
+            throw new WorkbookTooLargeException("Workbook is larger than " + (maxUncompressedBytes >> 20) + " MB");
+        }
+        WorkbookEstimate estimate = new WorkbookEstimate();
+        estimate.legacyBytes = size;
+        return estimate;
+    }
+
+    /** Accounts for the streaming reader moving shared strings tables of at least this size to disk. */
+    WorkbookEstimate withSharedStringsOnDiskFrom(long threshold) {
+        this.sharedStringsDiskThreshold = threshold;
+        return this;
+    }
+
+    private void add(String name, long size) {
+        if (name.startsWith("xl/worksheets/") && name.endsWith(".xml")) {
+            worksheetBytes += size;
+            largestWorksheetBytes = Math.max(largestWorksheetBytes, size);
+        } else if (name.equals("xl/sharedStrings.xml")) {
+            sharedStringsBytes += size;
+        } else if (name.startsWith("xl/media/")) {
+            mediaBytes += size;
+        } else {
+            if (name.startsWith("xl/drawings/") && name.endsWith(".xml")) {
+                drawings = true;
+            }
+            otherBytes += size;
+        }
+    }
+
+    public long getUncompressedBytes() {
+        return worksheetBytes + sharedStringsBytes + mediaBytes + otherBytes + legacyBytes;
+    }
+
+    public long getWorksheetBytes() {
+        return worksheetBytes;
+    }
+
+    public long getSharedStringsBytes() {
+        return sharedStringsBytes;
+    }
+
+    public long getMediaBytes() {
+        return mediaBytes;
+    }
+
+    /** Whether the workbook has drawing parts, which make the AUTO reader mode choose the DOM reader. */
+    public boolean hasDrawings() {
+        return drawings;
+    }
+
+    /** Heap for the DOM reader: every sheet, the shared strings and all pictures are held at once. */
+    public long getDomHeapBytes() {
+        if (legacyBytes > 0) {
+            // Legacy workbooks are streamed whatever the reader mode.
+            return getStreamingHeapBytes();
+        }
+        return BASE_BYTES + worksheetBytes * DOM_SHEET_FACTOR + sharedStringsBytes * DOM_SHARED_STRINGS_FACTOR
+                + mediaBytes + otherBytes;
+    }
+
+    /** Heap for the streaming reader: the shared strings plus the column model of one sheet at a time. */
+    public long getStreamingHeapBytes() {
+        if (legacyBytes > 0) {
+            return BASE_BYTES + legacyBytes * LEGACY_FACTOR;
+        }
+        boolean stringsOnDisk = sharedStringsDiskThreshold >= 0 && sharedStringsBytes >= sharedStringsDiskThreshold;
+        return BASE_BYTES + largestWorksheetBytes * STREAMING_SHEET_FACTOR
+                + (stringsOnDisk ? sharedStringsBytes / DISK_SHARED_STRINGS_DIVISOR : sharedStringsBytes * STREAMING_SHARED_STRINGS_FACTOR);
+    }
+
+    public long getHeapBytes(ReaderMode mode) {
+        return mode == ReaderMode.STREAMING ? getStreamingHeapBytes() : getDomHeapBytes();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ubaid.excel_to_PDF;
+
+import java.io.Closeable;
+import java.util.List;
+
+public interface WorkbookSource extends Closeable {
+
+    List<SheetSource> getSheets();
+
+    /** Formula cells recalculated when the workbook was opened; the others render their cached results. */
+    default int getFormulasEvaluated() {
+        return 0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ubaid.excel_to_PDF;
+
+/** Thrown when a workbook could never be converted within the configured limits, however long it waits. */
+public class WorkbookTooLargeException extends IllegalArgumentException {
+
+    public WorkbookTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ubaid.excel_to_PDF;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConversionCacheTests {
+
+	@Test
+	void evictsLeastRecentlyUsedEntriesByTotalBytes() {
+		ConversionCache cache = new ConversionCache(true, DataSize.ofBytes(100), DataSize.ofBytes(60));
+		cache.put("a", new byte[40]);
+		cache.put("b", new byte[40]);
+		cache.get("a");
+		cache.put("c", new byte[40]);
+
+		assertNull(cache.get("b"));
+		assertEquals(40, cache.get("a").length);
+		assertEquals(40, cache.get("c").length);
+		assertEquals(80, cache.getTotalBytes());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	void skipsEntriesLargerThanEntryLimit() {
+		ConversionCache cache = new ConversionCache(true, DataSize.ofBytes(100), DataSize.ofBytes(60));
+		ConversionCache.EntryBuffer buffer = cache.newEntryBuffer();
+		buffer.write(new byte[50], 0, 50);
+		assertEquals(50, buffer.toByteArray().length);
+		buffer.write(new byte[20], 0, 20);
+		assertNull(buffer.toByteArray());
+
+		cache.put("big", new byte[70]);
+		assertNull(cache.get("big"));
+	}
+
+	@Test
+	void keyDependsOnContentAndOptions() throws Exception {
+		ConversionCache cache = new ConversionCache(true, DataSize.ofMegabytes(1), DataSize.ofMegabytes(1));
+		byte[] upload = {1, 2, 3};
+
+		String key = cache.key(new ByteArrayInputStream(upload), "renderer=1");
+		assertEquals(key, cache.key(new ByteArrayInputStream(upload), "renderer=1"));
+		assertNotEquals(key, cache.key(new ByteArrayInputStream(upload), "renderer=2"));
+		assertNotEquals(key, cache.key(new ByteArrayInputStream(new byte[]{1, 2, 4}), "renderer=1"));
+	}
+
+	@Test
+	void buffersCopyForCache() {
+		ConversionCache cache = new ConversionCache(true, DataSize.ofBytes(100), DataSize.ofBytes(60));
+		ConversionCache.EntryBuffer buffer = cache.newEntryBuffer();
+		buffer.write(7);
+		buffer.write(new byte[]{8, 9}, 0, 2);
+		assertArrayEquals(new byte[]{7, 8, 9}, buffer.toByteArray());
+	}
+}
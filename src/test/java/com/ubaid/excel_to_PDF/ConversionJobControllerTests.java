@@ -0,0 +1,131 @@
+package com.ubaid.excel_to_PDF;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"excel-to-pdf.jobs.workers=1",
+		"excel-to-pdf.jobs.queue-capacity=1",
+		"excel-to-pdf.jobs.retry-after=7s"
+})
+@AutoConfigureMockMvc
+class ConversionJobControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ConversionJobService jobService;
+
+	@MockitoSpyBean
+	private ExcelToPdfConverter converter;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void convertsSubmittedJob() throws Exception {
+		String id = submit("report.xlsx");
+
+		JsonNode job = awaitJob(id);
+		assertEquals("DONE", job.get("status").asText());
+
+		byte[] pdf = mockMvc.perform(get("/jobs/" + id + "/result"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=report.pdf"))
+				.andReturn().getResponse().getContentAsByteArray();
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			assertEquals(3, document.getNumberOfPages());
+		}
+	}
+
+	@Test
+	void rejectsJobsWhenQueueIsFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			release.await(30, TimeUnit.SECONDS);
+			return invocation.callRealMethod();
+		}).when(converter).convert(any(WorkbookSource.class), any(OutputStream.class), any(ConversionStats.class), any(ConversionOptions.class));
+		String running = null;
+		String queued = null;
+		try {
+			running = submit("running.xlsx");
+			queued = submit("queued.xlsx");
+
+			mockMvc.perform(multipart("/jobs").file(upload("rejected.xlsx")))
+					.andExpect(status().isTooManyRequests())
+					.andExpect(header().string("Retry-After", "7"));
+			// A full queue is detected before the upload is written to disk.
+			MockMultipartFile unwritten = new MockMultipartFile("file", "unwritten.xlsx", "application/octet-stream", new byte[]{1}) {
+				@Override
+				public void transferTo(Path dest) {
+					throw new AssertionError("Rejected upload was stored");
+				}
+			};
+			assertThrows(RejectedExecutionException.class, () -> jobService.submit(unwritten));
+			mockMvc.perform(get("/jobs/" + running + "/result"))
+					.andExpect(status().isConflict());
+		} finally {
+			release.countDown();
+			if (running != null) awaitJob(running);
+			if (queued != null) awaitJob(queued);
+			reset(converter);
+		}
+	}
+
+	@Test
+	void unknownJobIsNotFound() throws Exception {
+		mockMvc.perform(get("/jobs/missing")).andExpect(status().isNotFound());
+	}
+
+	private String submit(String fileName) throws Exception {
+		String body = mockMvc.perform(multipart("/jobs").file(upload(fileName)))
+				.andExpect(status().isAccepted())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("id").asText();
+	}
+
+	private JsonNode awaitJob(String id) throws Exception {
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (true) {
+			String body = mockMvc.perform(get("/jobs/" + id))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			JsonNode job = objectMapper.readTree(body);
+			String status = job.get("status").asText();
+			if (status.equals("DONE") || status.equals("FAILED") || System.currentTimeMillis() > deadline) {
+				return job;
+			}
+			Thread.sleep(50);
+		}
+	}
+
+	private static MockMultipartFile upload(String fileName) throws Exception {
+		return new MockMultipartFile("file", fileName, "application/octet-stream", ExcelToPdfControllerTests.tableWorkbook());
+	}
+}
@@ -0,0 +1,70 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversionLimiterTests {
+
+	@Test
+	void reservesEstimatedHeapFromBudget() throws Exception {
+		WorkbookEstimate estimate = WorkbookEstimate.of(workbook(), DataSize.ofGigabytes(1).toBytes());
+		long needed = estimate.getStreamingHeapBytes();
+		ConversionLimiter limiter = new ConversionLimiter(true, 8, DataSize.ofBytes(needed + needed / 2),
+				DataSize.ofGigabytes(1), Duration.ofMillis(50));
+
+		ConversionLimiter.Permit permit = limiter.acquire(estimate, ReaderMode.STREAMING);
+		assertEquals(needed, permit.getReservedBytes());
+		ConversionRejectedException rejected = assertThrows(ConversionRejectedException.class,
+				() -> limiter.acquire(estimate, ReaderMode.STREAMING));
+		assertEquals(Duration.ofMillis(50), rejected.getRetryAfter());
+
+		permit.close();
+		permit.close();
+		assertEquals(0, limiter.getReservedBytes());
+		assertEquals(8, limiter.getAvailablePermits());
+		limiter.acquire(estimate, ReaderMode.STREAMING).close();
+	}
+
+	@Test
+	void routesToStreamingOrRejectsWhenDomDoesNotFit() throws Exception {
+		WorkbookEstimate estimate = WorkbookEstimate.of(workbook(), DataSize.ofGigabytes(1).toBytes());
+		ConversionLimiter limiter = new ConversionLimiter(true, 1, DataSize.ofBytes(estimate.getStreamingHeapBytes()),
+				DataSize.ofGigabytes(1), Duration.ZERO);
+		try (ConversionLimiter.Permit permit = limiter.acquire(estimate, ReaderMode.DOM)) {
+			assertEquals(ReaderMode.STREAMING, permit.getReaderMode());
+		}
+
+		ConversionLimiter tiny = new ConversionLimiter(true, 1, DataSize.ofMegabytes(1), DataSize.ofGigabytes(1), Duration.ZERO);
+		assertThrows(WorkbookTooLargeException.class, () -> tiny.acquire(estimate, ReaderMode.STREAMING));
+	}
+
+	@Test
+	void rejectsZipBombs() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out)) {
+			zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+			zip.write(new byte[10 << 20]);
+			zip.closeEntry();
+		}
+		ConversionLimiter limiter = new ConversionLimiter(true, 1, DataSize.ofGigabytes(1), DataSize.ofMegabytes(64), Duration.ZERO);
+		assertThrows(WorkbookTooLargeException.class, () -> limiter.estimate(out.toByteArray()));
+		assertThrows(IllegalArgumentException.class, () -> limiter.estimate(new byte[]{1, 2, 3}));
+	}
+
+	private static byte[] workbook() throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			workbook.createSheet("Data").createRow(0).createCell(0).setCellValue("value");
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+}
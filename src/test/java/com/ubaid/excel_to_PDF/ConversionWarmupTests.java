@@ -0,0 +1,32 @@
+package com.ubaid.excel_to_PDF;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"excel-to-pdf.warmup.enabled=true", "excel-to-pdf.warmup.max-rounds=3"})
+@AutoConfigureMockMvc
+class ConversionWarmupTests {
+
+	@Autowired
+	private ConversionWarmup warmup;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void warmsUpBeforeReadiness() throws Exception {
+		assertTrue(warmup.getRounds() >= 1 && warmup.getRounds() <= 3);
+		assertTrue(warmup.getDuration().toNanos() > 0);
+		mockMvc.perform(get("/actuator/health/readiness"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("UP"));
+	}
+}
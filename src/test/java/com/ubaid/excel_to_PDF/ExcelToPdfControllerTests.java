@@ -0,0 +1,417 @@
+package com.ubaid.excel_to_PDF;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "excel-to-pdf.limiter.acquire-timeout=200ms")
+@AutoConfigureMockMvc
+class ExcelToPdfControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ConversionLimiter limiter;
+
+	@Test
+	void convertsTableWorkbook() throws Exception {
+		byte[] pdf = convert("report.xlsx", tableWorkbook());
+
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			String text = PdfTextExtractor.getTextFromPage(document.getPage(1));
+			assertTrue(text.contains("Region"));
+			assertTrue(text.contains("North 3"));
+			assertEquals(3, document.getNumberOfPages());
+		}
+	}
+
+	@Test
+	void convertsLegacyWorkbookLikeXlsx() throws Exception {
+		List<String> xlsx = pageTexts(convert("legacy.xlsx", tableWorkbook()));
+		List<String> xls = pageTexts(convert("legacy.xls", tableWorkbook(new HSSFWorkbook())));
+
+		assertEquals(3, xls.size());
+		assertEquals(xlsx, xls);
+	}
+
+	@Test
+	void convertsOnlySelectedSheetAndRange() throws Exception {
+		byte[] xlsx = tableWorkbook();
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf")
+						.file(new MockMultipartFile("file", "selected.xlsx", "application/octet-stream", xlsx))
+						.param("sheets", "Sales")
+						.param("range", "A1:B5"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] pdf = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+
+		String text = String.join("\n", pageTexts(pdf));
+		assertTrue(text.contains("North 4"));
+		assertFalse(text.contains("North 5"));
+		assertFalse(text.contains("Q2"));
+
+		mockMvc.perform(multipart("/convert-excel-to-pdf")
+						.file(new MockMultipartFile("file", "selected.xlsx", "application/octet-stream", xlsx))
+						.param("sheets", "Missing"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void recalculatesFormulasOnRequest() throws Exception {
+		byte[] xlsx = ExcelToPdfConverterTests.staleFormulaWorkbook();
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf")
+						.file(new MockMultipartFile("file", "model.xlsx", "application/octet-stream", xlsx))
+						.param("formulas", "RECALCULATE"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] pdf = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+
+		String text = String.join("\n", pageTexts(pdf));
+		assertTrue(text.contains("Total 1500"), text);
+		assertTrue(text.contains("3000"), text);
+		assertTrue(String.join("\n", pageTexts(convert("model.xlsx", xlsx))).contains("Total 600"));
+	}
+
+	@Test
+	void recalculatesLegacyWorkbookWithDrawing() throws Exception {
+		byte[] xls;
+		try (HSSFWorkbook workbook = new HSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Notes");
+			Row row = sheet.createRow(0);
+			row.createCell(0).setCellValue(20);
+			row.createCell(1).setCellFormula("A1*2");
+			Comment comment = sheet.createDrawingPatriarch().createCellComment(workbook.getCreationHelper().createClientAnchor());
+			comment.setString(workbook.getCreationHelper().createRichTextString("Reviewed"));
+			row.getCell(0).setCellComment(comment);
+			workbook.write(out);
+			xls = out.toByteArray();
+		}
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf")
+						.file(new MockMultipartFile("file", "notes.xls", "application/octet-stream", xls))
+						.param("formulas", "RECALCULATE"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] pdf = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+
+		assertTrue(String.join("\n", pageTexts(pdf)).contains("40"));
+	}
+
+	@Test
+	void convertsCalendarWorkbook() throws Exception {
+		byte[] pdf = convert("calendar.xlsx", calendarWorkbook());
+
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			String text = PdfTextExtractor.getTextFromPage(document.getPage(1));
+			assertTrue(text.contains("JANUARY 2023"));
+			assertTrue(text.contains("Sunday Monday Tuesday"));
+		}
+	}
+
+	@Test
+	void repeatedUploadIsServedFromCache() throws Exception {
+		byte[] xlsx = tableWorkbook();
+		MockMultipartFile upload = new MockMultipartFile("file", "cached.xlsx", "application/octet-stream", xlsx);
+		byte[] pdf = convert("cached.xlsx", xlsx);
+
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf").file(upload)).andReturn();
+		MvcResult cached = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().longValue("Content-Length", pdf.length))
+				.andReturn();
+		assertArrayEquals(pdf, cached.getResponse().getContentAsByteArray());
+
+		String etag = cached.getResponse().getHeader("ETag");
+		mockMvc.perform(multipart("/convert-excel-to-pdf").file(upload).header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", etag));
+		mockMvc.perform(multipart("/convert-excel-to-pdf").file(upload).header("If-None-Match", "\"stale\", W/" + etag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(multipart("/convert-excel-to-pdf").file(upload).header("If-None-Match", "\"stale\", " + etag.substring(0, etag.length() - 2) + "\""))
+				.andExpect(request().asyncStarted());
+	}
+
+	@Test
+	void wildcardIfNoneMatchOnlyMatchesCachedPdf() throws Exception {
+		byte[] xlsx;
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			workbook.createSheet("Wildcard").createRow(0).createCell(0).setCellValue("Never converted before");
+			workbook.write(out);
+			xlsx = out.toByteArray();
+		}
+		MockMultipartFile upload = new MockMultipartFile("file", "uncached.xlsx", "application/octet-stream", xlsx);
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf").file(upload).header("If-None-Match", "*"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+		mockMvc.perform(multipart("/convert-excel-to-pdf").file(upload).header("If-None-Match", "*"))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void rejectsConversionWhenAllSlotsAreBusy() throws Exception {
+		List<ConversionLimiter.Permit> held = new ArrayList<>();
+		try {
+			byte[] xlsx;
+			try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+				workbook.createSheet("Busy").createRow(0).createCell(0).setCellValue("Not cached " + System.nanoTime());
+				workbook.write(out);
+				xlsx = out.toByteArray();
+			}
+			for (int i = 0; i < limiter.getPermitCount(); i++) {
+				held.add(limiter.acquire(limiter.estimate(xlsx), ReaderMode.STREAMING));
+			}
+			mockMvc.perform(multipart("/convert-excel-to-pdf")
+							.file(new MockMultipartFile("file", "busy.xlsx", "application/octet-stream", xlsx)))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string("Retry-After", "1"));
+		} finally {
+			held.forEach(ConversionLimiter.Permit::close);
+		}
+	}
+
+	@Test
+	void recordsConversionMetrics() throws Exception {
+		long before = meterRegistry.timer("excel_to_pdf.conversion", "mode", "calendar").count();
+		byte[] pdf = convert("metrics-calendar.xlsx", calendarWorkbook());
+
+		assertEquals(before + 1, meterRegistry.timer("excel_to_pdf.conversion", "mode", "calendar").count());
+		assertTrue(meterRegistry.get("excel_to_pdf.conversion.phase").tags("mode", "calendar", "phase", "layout").timer().count() > 0);
+		assertTrue(meterRegistry.get("excel_to_pdf.conversion.output").tag("mode", "calendar").summary().max() >= pdf.length);
+		assertTrue(meterRegistry.get("excel_to_pdf.conversion.rows").tag("mode", "calendar").summary().max() >= 6);
+		assertTrue(meterRegistry.find("excel_to_pdf.cache.requests").tag("result", "miss").functionCounter().count() > 0);
+	}
+
+	@Test
+	void convertsBatchArchiveAndReportsFailures() throws Exception {
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+			addZipEntry(zip, "march/sales.xlsx", tableWorkbook());
+			addZipEntry(zip, "broken.xlsx", "not a workbook".getBytes(StandardCharsets.UTF_8));
+			addZipEntry(zip, "notes.txt", "ignored".getBytes(StandardCharsets.UTF_8));
+			addZipEntry(zip, "calendar.xlsx", calendarWorkbook());
+		}
+
+		MvcResult started = mockMvc.perform(multipart("/convert-batch")
+						.file(new MockMultipartFile("file", "month-end.zip", "application/zip", archive.toByteArray())))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] result = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=month-end-pdf.zip"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		List<String> names = new ArrayList<>();
+		JsonNode manifest = null;
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(result))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				names.add(entry.getName());
+				byte[] content = zip.readAllBytes();
+				if (entry.getName().equals("manifest.json")) {
+					manifest = new ObjectMapper().readTree(content);
+				} else {
+					try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(content)))) {
+						assertTrue(document.getNumberOfPages() > 0);
+					}
+				}
+			}
+		}
+		assertEquals(List.of("march/sales.pdf", "calendar.pdf", "manifest.json"), names);
+		assertEquals(4, manifest.size());
+		assertEquals("FAILED", manifest.get(1).get("status").asText());
+		assertEquals("SKIPPED", manifest.get(2).get("status").asText());
+		assertEquals("CONVERTED", manifest.get(3).get("status").asText());
+		try (Stream<Path> spilled = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+			assertEquals(0, spilled.filter(file -> file.getFileName().toString().startsWith("excel-to-pdf-batch-")).count());
+		}
+	}
+
+	@Test
+	void batchGivesClashingOutputNamesASuffix() throws Exception {
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+			addZipEntry(zip, "Report.XLSX", tableWorkbook());
+			addZipEntry(zip, "report.xls", tableWorkbook(new HSSFWorkbook()));
+			addZipEntry(zip, "March/a.xlsx", calendarWorkbook());
+			addZipEntry(zip, "march/a.xlsx", calendarWorkbook());
+		}
+
+		MvcResult started = mockMvc.perform(multipart("/convert-batch")
+						.file(new MockMultipartFile("file", "Clashes.ZIP", "application/zip", archive.toByteArray())))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] result = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=Clashes-pdf.zip"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		List<String> names = new ArrayList<>();
+		JsonNode manifest = null;
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(result))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				names.add(entry.getName());
+				if (entry.getName().equals("manifest.json")) {
+					manifest = new ObjectMapper().readTree(zip.readAllBytes());
+				}
+			}
+		}
+		assertEquals(List.of("Report.pdf", "report-2.pdf", "March/a.pdf", "march/a-2.pdf", "manifest.json"), names);
+		for (JsonNode entry : manifest) {
+			assertEquals("CONVERTED", entry.get("status").asText());
+		}
+	}
+
+	@Test
+	void batchKeepsOutputEntriesInsideTheArchive() throws Exception {
+		byte[] xlsx = tableWorkbook();
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+			addZipEntry(zip, "../../evil.xlsx", xlsx);
+			addZipEntry(zip, "/etc/abs.xlsx", xlsx);
+			addZipEntry(zip, "reports\\..\\..\\win.xlsx", xlsx);
+			addZipEntry(zip, "./q1//north.xlsx", xlsx);
+		}
+
+		MvcResult started = mockMvc.perform(multipart("/convert-batch")
+						.file(new MockMultipartFile("file", "slip.zip", "application/zip", archive.toByteArray())))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] result = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+
+		List<String> names = new ArrayList<>();
+		JsonNode manifest = null;
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(result))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				names.add(entry.getName());
+				if (entry.getName().equals("manifest.json")) {
+					manifest = new ObjectMapper().readTree(zip.readAllBytes());
+				}
+			}
+		}
+		assertEquals(List.of("q1/north.pdf", "manifest.json"), names);
+		for (int i = 0; i < 3; i++) {
+			assertEquals("FAILED", manifest.get(i).get("status").asText());
+		}
+		assertEquals("CONVERTED", manifest.get(3).get("status").asText());
+	}
+
+	private static List<String> pageTexts(byte[] pdf) throws Exception {
+		List<String> texts = new ArrayList<>();
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			for (int i = 1; i <= document.getNumberOfPages(); i++) {
+				texts.add(PdfTextExtractor.getTextFromPage(document.getPage(i)));
+			}
+		}
+		return texts;
+	}
+
+	private static void addZipEntry(ZipOutputStream zip, String name, byte[] content) throws Exception {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content);
+		zip.closeEntry();
+	}
+
+	private byte[] convert(String fileName, byte[] xlsx) throws Exception {
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf")
+						.file(new MockMultipartFile("file", fileName, "application/octet-stream", xlsx)))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		MvcResult result = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=" + fileName.replaceAll("\\.xlsx?$", ".pdf")))
+				.andReturn();
+		return result.getResponse().getContentAsByteArray();
+	}
+
+	static byte[] tableWorkbook() throws Exception {
+		return tableWorkbook(new XSSFWorkbook());
+	}
+
+	static byte[] tableWorkbook(Workbook created) throws Exception {
+		try (Workbook workbook = created; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Sales");
+			Row header = sheet.createRow(0);
+			String[] columns = {"Region", "Q1", "Q2", "Q3", "Q4", "Total"};
+			for (int col = 0; col < columns.length; col++) {
+				header.createCell(col).setCellValue(columns[col]);
+			}
+			for (int i = 1; i <= 20; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("North " + i);
+				for (int col = 1; col < columns.length; col++) {
+					row.createCell(col).setCellValue(i * col);
+				}
+			}
+			workbook.createSheet("Empty");
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	static byte[] calendarWorkbook() throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Jan");
+			Row header = sheet.createRow(0);
+			String[] days = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+			for (int col = 0; col < days.length; col++) {
+				header.createCell(col).setCellValue(days[col]);
+			}
+			int day = 0;
+			for (int week = 1; week <= 5; week++) {
+				Row row = sheet.createRow(week);
+				for (int col = 0; col < 7 && day < 31; col++, day++) {
+					row.createCell(col).setCellValue(String.valueOf(44927 + day));
+				}
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,376 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
+import org.apache.poi.xssf.usermodel.XSSFDrawing;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcelToPdfConverterTests {
+
+	@Test
+	void parallelRenderingKeepsSheetOrderAndOrientation() throws Exception {
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(true, 3);
+		try {
+			byte[] pdf = convert(converter, multiSheetWorkbook());
+
+			try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+				assertEquals(6, document.getNumberOfPages());
+				for (int i = 1; i <= 6; i++) {
+					String text = PdfTextExtractor.getTextFromPage(document.getPage(i));
+					assertTrue(text.contains("Sheet " + i + " row 1"), text);
+				}
+				assertTrue(document.getPage(2).getPageSize().getWidth() > document.getPage(2).getPageSize().getHeight());
+				assertTrue(document.getPage(1).getPageSize().getWidth() < document.getPage(1).getPageSize().getHeight());
+			}
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void parallelRenderingKeepsCalendarTitlePage() throws Exception {
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(true, 2);
+		try {
+			byte[] pdf = convert(converter, ExcelToPdfControllerTests.calendarWorkbook());
+
+			try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+				assertEquals(2, document.getNumberOfPages());
+				assertEquals("2023", PdfTextExtractor.getTextFromPage(document.getPage(1)).trim());
+				assertTrue(PdfTextExtractor.getTextFromPage(document.getPage(2)).contains("JANUARY 2023"));
+			}
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void parallelRenderingKeepsBlankPageOfEmptySheet() throws Exception {
+		byte[] xlsx = ExcelToPdfControllerTests.tableWorkbook(new XSSFWorkbook());
+		ExcelToPdfConverter sequential = new ExcelToPdfConverter(false, 1);
+		ExcelToPdfConverter parallel = new ExcelToPdfConverter(true, 2);
+		try {
+			List<String> expected = pageTexts(convert(sequential, xlsx));
+			ConversionStats stats = new ConversionStats();
+			List<String> pages = pageTexts(convert(parallel, xlsx, SheetSelection.ALL, FormulaMode.CACHED, stats));
+
+			assertEquals(3, expected.size());
+			assertEquals(expected, pages);
+			assertTrue(stats.getPhaseNanos(ConversionStats.Phase.LAYOUT) <= stats.getElapsedNanos());
+		} finally {
+			sequential.shutdown();
+			parallel.shutdown();
+		}
+	}
+
+	@Test
+	void workbookOpenedFromFileMatchesStream(@TempDir Path dir) throws Exception {
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(false, 1);
+		try {
+			byte[] xlsx = multiSheetWorkbook();
+			Path file = Files.write(dir.resolve("upload.xlsx"), xlsx);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (WorkbookSource workbook = converter.openWorkbook(file.toFile(), "upload.xlsx", converter.defaultOptions())) {
+				converter.convert(workbook, out, new ConversionStats(), converter.defaultOptions());
+			}
+
+			assertEquals(pageTexts(convert(converter, xlsx)), pageTexts(out.toByteArray()));
+			assertThrows(IllegalArgumentException.class,
+					() -> converter.openWorkbook(Files.write(dir.resolve("broken.xlsx"), new byte[]{1, 2, 3}).toFile(), "broken.xlsx", converter.defaultOptions()));
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void repeatedPictureIsEmbeddedOnce() throws Exception {
+		byte[] xlsx = repeatedLogoWorkbook();
+		for (boolean parallel : new boolean[]{false, true}) {
+			ExcelToPdfConverter converter = new ExcelToPdfConverter(parallel, 2);
+			try {
+				ConversionStats stats = new ConversionStats();
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), "logo.xlsx", converter.defaultOptions())) {
+					converter.convert(workbook, out, stats, converter.defaultOptions());
+				}
+
+				Set<Integer> xObjects = new HashSet<>();
+				try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+					for (int i = 1; i <= document.getNumberOfPages(); i++) {
+						PdfDictionary resources = document.getPage(i).getResources().getResource(PdfName.XObject);
+						if (resources != null) {
+							resources.values(false).forEach(ref -> xObjects.add(((PdfIndirectReference) ref).getObjNumber()));
+						}
+					}
+				}
+				assertEquals(4, stats.getImages());
+				assertEquals(1, xObjects.size(), "parallel=" + parallel);
+				assertTrue(stats.getImageBytesSaved() > 0);
+			} finally {
+				converter.shutdown();
+			}
+		}
+	}
+
+	@Test
+	void fastGridRepeatsHeaderTruncatesAndKeepsLaterContent() throws Exception {
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(false, 1);
+		try {
+			byte[] xlsx = gridWorkbook();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ConversionOptions options = converter.defaultOptions().withReaderMode(ReaderMode.DOM).withRenderMode(RenderMode.FAST_GRID);
+			try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), "grid.xlsx", options)) {
+				converter.convert(workbook, out, new ConversionStats(), options);
+			}
+
+			List<String> pages = pageTexts(out.toByteArray());
+			assertTrue(pages.size() >= 4, "pages=" + pages.size());
+			assertTrue(pages.get(0).startsWith("Name Value"), pages.get(0));
+			assertTrue(pages.get(1).startsWith("Name Value"), pages.get(1));
+			String all = String.join("\n", pages);
+			assertTrue(all.contains("Row 150"));
+			assertTrue(all.contains("Row 7 is described at such length"));
+			assertFalse(all.contains("half of a portrait page"));
+			assertTrue(all.contains("..."));
+			assertTrue(pages.get(pages.size() - 1).contains("Second sheet"));
+			try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+				boolean hasImage = false;
+				for (int i = 1; i <= document.getNumberOfPages(); i++) {
+					hasImage |= document.getPage(i).getResources().getResource(PdfName.XObject) != null;
+				}
+				assertTrue(hasImage);
+			}
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void detectsCalendarFromHeaderOfSelectedRange() throws Exception {
+		byte[] xlsx;
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(ExcelToPdfControllerTests.calendarWorkbook()));
+			 ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.getSheetAt(0);
+			sheet.shiftRows(0, sheet.getLastRowNum(), 4);
+			sheet.createRow(0).createCell(0).setCellValue("Printed 2 January");
+			workbook.write(out);
+			xlsx = out.toByteArray();
+		}
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(false, 1);
+		try {
+			List<String> pages = pageTexts(convert(converter, xlsx, SheetSelection.of(null, "A5:G10", false), FormulaMode.CACHED,
+					new ConversionStats()));
+
+			String text = String.join("\n", pages);
+			assertTrue(text.startsWith("2023\nJANUARY 2023\nSunday Monday Tuesday"), text);
+			assertTrue(text.contains("29 30 31"), text);
+			assertFalse(text.contains("Printed"), text);
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void rendersCachedFormulaResultsUnlessAskedToRecalculate() throws Exception {
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(false, 1);
+		try {
+			byte[] xlsx = staleFormulaWorkbook();
+			SheetSelection range = SheetSelection.of(null, "A1:B4", false);
+
+			ConversionStats cached = new ConversionStats();
+			String cachedText = String.join("\n", pageTexts(convert(converter, xlsx, range, FormulaMode.CACHED, cached)));
+			assertTrue(cachedText.contains("Total 600"), cachedText);
+			assertEquals(0, cached.getFormulasEvaluated());
+			assertEquals(1, cached.getFormulasCached());
+
+			ConversionStats recalculated = new ConversionStats();
+			String recalculatedText = String.join("\n", pageTexts(convert(converter, xlsx, range, FormulaMode.RECALCULATE, recalculated)));
+			assertTrue(recalculatedText.contains("Total 1500"), recalculatedText);
+			assertEquals(1, recalculated.getFormulasEvaluated());
+			assertEquals(0, recalculated.getFormulasCached());
+
+			try (DomWorkbookSource workbook = new DomWorkbookSource(new XSSFWorkbook(new ByteArrayInputStream(xlsx)))) {
+				assertEquals(0, workbook.recalculateFormulas(Duration.ZERO));
+			}
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void compressionProfilesKeepContent() throws Exception {
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(false, 2);
+		try {
+			byte[] xlsx = gridWorkbook();
+			byte[] fast = convert(converter, xlsx, CompressionProfile.FAST);
+			byte[] compact = convert(converter, xlsx, CompressionProfile.COMPACT);
+
+			assertEquals(pageTexts(fast), pageTexts(compact));
+			assertEquals(pageTexts(fast), pageTexts(convert(converter, xlsx, CompressionProfile.BALANCED)));
+			assertTrue(compact.length < fast.length, compact.length + " vs " + fast.length);
+			try (PdfReader reader = new PdfReader(new ByteArrayInputStream(compact)); PdfDocument document = new PdfDocument(reader)) {
+				assertFalse(reader.hasRebuiltXref());
+				assertTrue(reader.hasXrefStm());
+				for (int i = 1; i <= document.getNumberOfPages(); i++) {
+					assertEquals(PdfName.FlateDecode, document.getPage(i).getContentStream(0).get(PdfName.Filter));
+				}
+			}
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	private static byte[] convert(ExcelToPdfConverter converter, byte[] xlsx, CompressionProfile compression) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ConversionOptions options = converter.defaultOptions().withRenderMode(RenderMode.LAYOUT).withCompressionProfile(compression);
+		try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), "grid.xlsx", options)) {
+			converter.convert(workbook, out, new ConversionStats(), options);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] convert(ExcelToPdfConverter converter, byte[] xlsx, SheetSelection selection, FormulaMode formulas,
+								  ConversionStats stats) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ConversionOptions options = converter.defaultOptions().withReaderMode(ReaderMode.AUTO).withSelection(selection).withFormulaMode(formulas);
+		try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), "model.xlsx", options)) {
+			converter.convert(workbook, out, stats, options);
+		}
+		return out.toByteArray();
+	}
+
+	private static List<String> pageTexts(byte[] pdf) throws Exception {
+		List<String> texts = new ArrayList<>();
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+			for (int i = 1; i <= document.getNumberOfPages(); i++) {
+				texts.add(PdfTextExtractor.getTextFromPage(document.getPage(i)));
+			}
+		}
+		return texts;
+	}
+
+	static byte[] convert(ExcelToPdfConverter converter, byte[] xlsx) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (WorkbookSource workbook = converter.openWorkbook(new ByteArrayInputStream(xlsx), "test.xlsx", converter.defaultOptions())) {
+			converter.convert(workbook, out, new ConversionStats(), converter.defaultOptions());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Inputs whose total was stored as 600, then an input changed to 1000 without recalculating, as happens with
+	 * manual calculation in Excel. A second total outside A1:B4 is never rendered with that range.
+	 */
+	static byte[] staleFormulaWorkbook() throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Model");
+			sheet.createRow(0).createCell(0).setCellValue("Item");
+			sheet.getRow(0).createCell(1).setCellValue("Amount");
+			for (int i = 1; i <= 2; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("Input " + i);
+				row.createCell(1).setCellValue(i * 100);
+			}
+			Row total = sheet.createRow(3);
+			total.createCell(0).setCellValue("Total");
+			total.createCell(1).setCellFormula("SUM(B2:B3)+300");
+			sheet.createRow(6).createCell(1).setCellFormula("B4*2");
+			workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+			sheet.getRow(1).getCell(1).setCellValue(1000);
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	/** One logo on three sheets, plus a byte-identical copy stored as a separate picture part on a fourth. */
+	private static byte[] repeatedLogoWorkbook() throws Exception {
+		BufferedImage logo = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+		logo.setRGB(10, 10, 0xFF0000);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(logo, "png", png);
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			int picture = workbook.addPicture(png.toByteArray(), Workbook.PICTURE_TYPE_PNG);
+			int copy = workbook.addPicture(png.toByteArray(), Workbook.PICTURE_TYPE_PNG);
+			for (int i = 1; i <= 4; i++) {
+				Sheet sheet = workbook.createSheet("Sheet " + i);
+				sheet.createRow(0).createCell(0).setCellValue("Report " + i);
+				XSSFDrawing drawing = (XSSFDrawing) sheet.createDrawingPatriarch();
+				drawing.createPicture(new XSSFClientAnchor(0, 0, 0, 0, 1, 2, 3, 6), i == 4 ? copy : picture);
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	/** 150 rows, some too long for their column, with a picture after the grid and a small second sheet. */
+	private static byte[] gridWorkbook() throws Exception {
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB), "png", png);
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Data");
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("Name");
+			header.createCell(1).setCellValue("Value");
+			for (int r = 1; r <= 150; r++) {
+				Row row = sheet.createRow(r);
+				row.createCell(0).setCellValue(r % 7 == 0
+						? "Row " + r + " is described at such length that it cannot fit in half of a portrait page"
+						: "Row " + r);
+				row.createCell(1).setCellValue(r);
+			}
+			XSSFDrawing drawing = (XSSFDrawing) sheet.createDrawingPatriarch();
+			drawing.createPicture(new XSSFClientAnchor(0, 0, 0, 0, 3, 1, 4, 3),
+					workbook.addPicture(png.toByteArray(), Workbook.PICTURE_TYPE_PNG));
+			Sheet second = workbook.createSheet("Second");
+			second.createRow(0).createCell(0).setCellValue("Title");
+			second.createRow(1).createCell(0).setCellValue("Second sheet");
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	private static byte[] multiSheetWorkbook() throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			for (int i = 1; i <= 6; i++) {
+				Sheet sheet = workbook.createSheet("Sheet " + i);
+				sheet.getPrintSetup().setLandscape(i % 2 == 0);
+				Row header = sheet.createRow(0);
+				header.createCell(0).setCellValue("Name");
+				header.createCell(1).setCellValue("Value");
+				for (int r = 1; r <= 10; r++) {
+					Row row = sheet.createRow(r);
+					row.createCell(0).setCellValue("Sheet " + i + " row " + r);
+					row.createCell(1).setCellValue(r * i);
+				}
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.layout.Document;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FontRegistryTests {
+
+	private static final Path DEJAVU_SANS = Path.of("/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+
+	@Test
+	void resolvesExcelFontsToCachedStandardPrograms() {
+		FontRegistry registry = new FontRegistry(null);
+
+		assertSame(registry.getProgram("Calibri", false, false), registry.getProgram("Arial", false, false));
+		assertEquals("Helvetica-Bold", registry.getProgram("Calibri", true, false).getFontNames().getFontName());
+		assertEquals("Times-BoldItalic", registry.getProgram("Times New Roman", true, true).getFontNames().getFontName());
+		assertEquals("Courier", registry.getProgram("Courier New", false, false).getFontNames().getFontName());
+
+		FontRegistry.DocumentFonts first = registry.forDocument();
+		FontRegistry.DocumentFonts second = registry.forDocument();
+		assertSame(first.regular(), first.get("Calibri", false, false));
+		assertNotSame(first.regular(), second.regular());
+		assertSame(first.regular().getFontProgram(), second.regular().getFontProgram());
+	}
+
+	@Test
+	void embedsRegisteredFontForMatchingCells(@TempDir Path dir) throws Exception {
+		assumeTrue(Files.exists(DEJAVU_SANS), "DejaVu Sans is not installed");
+		Files.copy(DEJAVU_SANS, dir.resolve("DejaVuSans.ttf"));
+		FontRegistry registry = new FontRegistry(dir.toString());
+		FontProgram program = registry.getProgram("DejaVu Sans", false, false);
+		assertSame(program, registry.getProgram("dejavu sans", true, false));
+
+		ExcelToPdfConverter converter = new ExcelToPdfConverter(registry, false, 1);
+		try {
+			byte[] pdf = ExcelToPdfConverterTests.convert(converter, cyrillicWorkbook());
+			try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+				assertTrue(PdfTextExtractor.getTextFromPage(document.getPage(1)).contains("Привет"));
+				// Font descriptors may sit in compressed object streams, so look them up rather than in the raw bytes.
+				boolean embedded = false;
+				for (int i = 1; i < document.getNumberOfPdfObjects(); i++) {
+					PdfObject object = document.getPdfObject(i);
+					embedded |= object instanceof PdfDictionary dictionary && dictionary.containsKey(PdfName.FontFile2);
+				}
+				assertTrue(embedded);
+			}
+		} finally {
+			converter.shutdown();
+		}
+	}
+
+	@Test
+	void fastGridTruncatesEmbeddedFontTextOnCodePoints(@TempDir Path dir) throws Exception {
+		assumeTrue(Files.exists(DEJAVU_SANS), "DejaVu Sans is not installed");
+		Files.copy(DEJAVU_SANS, dir.resolve("DejaVuSans.ttf"));
+		FontRegistry.DocumentFonts fonts = new FontRegistry(dir.toString()).forDocument();
+		try (Document document = new Document(new PdfDocument(new PdfWriter(new ByteArrayOutputStream())))) {
+			FastGridRenderer renderer = new FastGridRenderer(document, new CellStyleCache(), fonts, 36f);
+			PdfFont font = fonts.get("DejaVu Sans", false, false);
+			// Mathematical sans-serif A is a surrogate pair whose halves have no glyph, and so no width, of their own.
+			String symbols = "\uD835\uDDA0".repeat(20);
+			for (float available = 10; available < 100; available += 0.5f) {
+				String truncated = renderer.truncate(font, symbols, available);
+				String kept = truncated.isEmpty() ? truncated : truncated.substring(0, truncated.length() - 3);
+				assertEquals(0, kept.length() % 2, "split pair at " + available + "pt");
+			}
+		}
+	}
+
+	private static byte[] cyrillicWorkbook() throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Font font = workbook.createFont();
+			font.setFontName("DejaVu Sans");
+			CellStyle style = workbook.createCellStyle();
+			style.setFont(font);
+			Sheet sheet = workbook.createSheet("Greetings");
+			sheet.createRow(0).createCell(0).setCellValue("Language");
+			Row row = sheet.createRow(1);
+			row.createCell(0).setCellValue("Привет");
+			row.getCell(0).setCellStyle(style);
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+}
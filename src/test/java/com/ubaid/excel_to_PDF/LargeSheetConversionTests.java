@@ -0,0 +1,89 @@
+package com.ubaid.excel_to_PDF;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Converts a 200k-row sheet. Run with {@code mvn test -Plarge-tests}, which forks the tests with a
+ * fixed heap so that a regression to whole-sheet buffering fails with an OutOfMemoryError.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "large-tests", matches = "true")
+class LargeSheetConversionTests {
+
+	private static final int ROWS = 200_000;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void convertsLargeSheetWithinFixedHeap() throws Exception {
+		assertTrue(convert("LAYOUT") > 1000);
+	}
+
+	@Test
+	void convertsLargeSheetOnFastGridWithinFixedHeap() throws Exception {
+		assertTrue(convert("FAST_GRID") > 1000);
+	}
+
+	private int convert(String render) throws Exception {
+		MvcResult started = mockMvc.perform(multipart("/convert-excel-to-pdf")
+						.file(new MockMultipartFile("file", "large-" + render.toLowerCase() + ".xlsx", "application/octet-stream", largeWorkbook()))
+						.param("render", render))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		started.getAsyncResult(Duration.ofMinutes(10).toMillis());
+		MvcResult result = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())))) {
+			return document.getNumberOfPages();
+		}
+	}
+
+	private static byte[] largeWorkbook() throws Exception {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Data");
+			Row header = sheet.createRow(0);
+			for (int col = 0; col < 5; col++) {
+				header.createCell(col).setCellValue("Column " + col);
+			}
+			for (int i = 1; i <= ROWS; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("Row " + i);
+				for (int col = 1; col < 5; col++) {
+					row.createCell(col).setCellValue(i * col);
+				}
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.ubaid.excel_to_PDF;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkbookSourceTests {
+
+	@Test
+	void streamingReaderMatchesDomReader() throws Exception {
+		byte[] xlsx = createWorkbook(new XSSFWorkbook());
+
+		List<List<String>> domRows;
+		List<List<String>> domSummary;
+		try (WorkbookSource dom = new DomWorkbookSource(new XSSFWorkbook(new ByteArrayInputStream(xlsx)))) {
+			domRows = readAll(dom.getSheets().get(0));
+			domSummary = readAll(dom.getSheets().get(1));
+			assertTrue(dom.getSheets().get(0).isLandscape());
+		}
+		assertEquals(List.of(List.of("0", "Total", "22.5", "Sum of Name", "true")), domSummary);
+		try (WorkbookSource streaming = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)))) {
+			SheetSource sheet = streaming.getSheets().get(0);
+			assertEquals("Report", sheet.getSheetName());
+			assertEquals(domRows, readAll(sheet));
+			assertEquals(domSummary, readAll(streaming.getSheets().get(1)));
+			assertTrue(sheet.isLandscape());
+			assertEquals(20 * 256, sheet.getColumnWidth(1));
+			assertEquals(8 * 256, sheet.getColumnWidth(3));
+		}
+	}
+
+	@Test
+	void diskBackedSharedStringsMatchHeapStrings() throws Exception {
+		byte[] xlsx;
+		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("Text");
+			XSSFRichTextString rich = new XSSFRichTextString("Bold and plain");
+			Font bold = workbook.createFont();
+			bold.setBold(true);
+			rich.applyFont(0, 4, bold);
+			sheet.createRow(0).createCell(0).setCellValue(rich);
+			for (int i = 1; i <= 500; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("Entry " + i % 50 + " \u00e9\u4e2d");
+				row.createCell(1).setCellValue("Line one\r\nline " + i);
+			}
+			workbook.write(out);
+			xlsx = out.toByteArray();
+		}
+
+		List<List<String>> heapRows;
+		try (WorkbookSource heap = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)))) {
+			heapRows = readAll(heap.getSheets().get(0));
+		}
+		try (WorkbookSource disk = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)), SheetSelection.ALL, 0, 16)) {
+			assertEquals(heapRows, readAll(disk.getSheets().get(0)));
+			assertEquals(heapRows, readAll(disk.getSheets().get(0)));
+		}
+		assertEquals("Bold and plain", heapRows.get(0).get(1));
+	}
+
+	@Test
+	void sheetModelsShareRepeatedDisplayText() throws Exception {
+		byte[] xlsx = createWorkbook(new XSSFWorkbook());
+		CellTextInterner interner = new CellTextInterner();
+		try (WorkbookSource dom = new DomWorkbookSource(new XSSFWorkbook(new ByteArrayInputStream(xlsx)));
+			 WorkbookSource streaming = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)))) {
+			SheetModel first = SheetModel.read(dom.getSheets().get(0), interner);
+			SheetModel second = SheetModel.read(streaming.getSheets().get(0), interner);
+			assertEquals("$3/16/2023$", first.getValue(1, 2));
+			assertEquals("true", first.getValue(2, 4));
+			assertSame(first.getValue(1, 0), second.getValue(1, 0));
+			assertSame(first.getValue(1, 2), second.getValue(1, 2));
+		}
+		assertEquals("7", CellValues.formatNumber(7.00001));
+		assertEquals("2.5", CellValues.formatNumber(2.5));
+		assertTrue(CellValues.isBlank(" \t\r\n\u00A0\u200B\uFEFF"));
+		assertFalse(CellValues.isBlank("\u2003"));
+		assertFalse(CellValues.isBlank(" x "));
+	}
+
+	@Test
+	void handlerCanStopReading() throws Exception {
+		try (WorkbookSource streaming = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(createWorkbook(new XSSFWorkbook()))))) {
+			List<Integer> seen = new ArrayList<>();
+			streaming.getSheets().get(0).readRows(row -> {
+				seen.add(row.getRowIndex());
+				return false;
+			});
+			assertEquals(List.of(0), seen);
+		}
+	}
+
+	@Test
+	void legacyStreamingReaderMatchesDomReader() throws Exception {
+		byte[] xls = createWorkbook(new HSSFWorkbook());
+
+		List<List<String>> domRows;
+		List<List<String>> domSummary;
+		try (WorkbookSource dom = new DomWorkbookSource(new HSSFWorkbook(new ByteArrayInputStream(xls)))) {
+			domRows = readAll(dom.getSheets().get(0));
+			domSummary = readAll(dom.getSheets().get(1));
+		}
+		try (WorkbookSource streaming = new HssfStreamingWorkbookSource(new POIFSFileSystem(new ByteArrayInputStream(xls)))) {
+			SheetSource sheet = streaming.getSheets().get(0);
+			assertEquals("Report", sheet.getSheetName());
+			assertEquals(domRows, readAll(sheet));
+			assertEquals("Summary", streaming.getSheets().get(1).getSheetName());
+			assertEquals(domSummary, readAll(streaming.getSheets().get(1)));
+			assertEquals(List.of(List.of("0", "Total", "22.5", "Sum of Name", "true")), domSummary);
+			assertTrue(sheet.isLandscape());
+			assertEquals(20 * 256, sheet.getColumnWidth(1));
+			assertEquals(8 * 256, sheet.getColumnWidth(3));
+
+			List<Integer> seen = new ArrayList<>();
+			sheet.readRows(row -> {
+				seen.add(row.getRowIndex());
+				return false;
+			});
+			assertEquals(List.of(0), seen);
+		}
+	}
+
+	@Test
+	void readersSkipUnselectedSheetsAndCellsOutsideTheRange() throws Exception {
+		Workbook xlsxWorkbook = new XSSFWorkbook();
+		xlsxWorkbook.createSheet("Report");
+		xlsxWorkbook.setPrintArea(0, "A1:B5");
+		byte[] xlsx = createWorkbook(xlsxWorkbook);
+		Workbook xlsWorkbook = new HSSFWorkbook();
+		xlsWorkbook.createSheet("Report");
+		xlsWorkbook.setPrintArea(0, "A1:B5");
+		byte[] xls = createWorkbook(xlsWorkbook);
+
+		SheetSelection printArea = SheetSelection.of(List.of("report"), null, true);
+		List<List<String>> expected = List.of(List.of("0", "Name", "Amount"), List.of("2", "Item 1", "1.5"), List.of("4", "Item 2", "3"));
+		try (WorkbookSource dom = new DomWorkbookSource(new XSSFWorkbook(new ByteArrayInputStream(xlsx)), printArea);
+			 WorkbookSource streaming = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)), printArea);
+			 WorkbookSource legacy = new HssfStreamingWorkbookSource(new POIFSFileSystem(new ByteArrayInputStream(xls)), printArea)) {
+			for (WorkbookSource source : List.of(dom, streaming, legacy)) {
+				assertEquals(1, source.getSheets().size());
+				assertEquals(expected, readAll(source.getSheets().get(0)));
+			}
+		}
+
+		SheetSelection summary = SheetSelection.of(null, "Summary!A1:A1", false);
+		try (WorkbookSource streaming = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)), summary);
+			 WorkbookSource legacy = new HssfStreamingWorkbookSource(new POIFSFileSystem(new ByteArrayInputStream(xls)), summary)) {
+			for (WorkbookSource source : List.of(streaming, legacy)) {
+				assertEquals("Summary", source.getSheets().get(0).getSheetName());
+				assertEquals(List.of(List.of("0", "Total")), readAll(source.getSheets().get(0)));
+			}
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(xlsx)), SheetSelection.of(List.of("3"), null, false)));
+	}
+
+	private static List<List<String>> readAll(SheetSource sheet) {
+		List<List<String>> rows = new ArrayList<>();
+		sheet.readRows(row -> {
+			List<String> values = new ArrayList<>();
+			values.add(String.valueOf(row.getRowIndex()));
+			for (int col = 0; col < row.getLastCellNum(); col++) {
+				values.add(row.getValue(col));
+			}
+			rows.add(values);
+			return true;
+		});
+		return rows;
+	}
+
+	private static byte[] createWorkbook(Workbook created) throws Exception {
+		try (Workbook workbook = created; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.getNumberOfSheets() > 0 ? workbook.getSheetAt(0) : workbook.createSheet("Report");
+			sheet.setColumnWidth(1, 20 * 256);
+			sheet.getPrintSetup().setLandscape(true);
+			CreationHelper helper = workbook.getCreationHelper();
+			CellStyle dateStyle = workbook.createCellStyle();
+			dateStyle.setDataFormat(helper.createDataFormat().getFormat("m/d/yy"));
+
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("Name");
+			header.createCell(1).setCellValue("  Amount ");
+			header.createCell(2).setCellValue("Date");
+			for (int i = 1; i <= 5; i++) {
+				Row row = sheet.createRow(i * 2);
+				row.createCell(0).setCellValue("Item " + i);
+				row.createCell(1).setCellValue(i * 1.5);
+				org.apache.poi.ss.usermodel.Cell date = row.createCell(2);
+				date.setCellValue(45000 + i);
+				date.setCellStyle(dateStyle);
+				row.createCell(4).setCellValue(i % 2 == 0);
+				row.createCell(5).setCellFormula("B" + (i * 2 + 1) + "*2");
+			}
+			Row total = workbook.createSheet("Summary").createRow(0);
+			total.createCell(0).setCellValue("Total");
+			total.createCell(1).setCellFormula("SUM(Report!B3:B11)");
+			total.createCell(2).setCellFormula("\" Sum of \"&Report!A1");
+			total.createCell(3).setCellFormula("B1>20");
+			// Store results with the formulas, as Excel does on save.
+			workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+}